@@ -1,36 +1,19 @@
 package com.hmzadev.interactivechatbot;
 
-import com.hmzadev.interactivechatbot.services.DatabaseService;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-
-import io.jsonwebtoken.io.Decoders;
-
-import java.util.List;
-import java.util.Map;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-public class InteractiveChatbotApplication implements CommandLineRunner {
-
-    @Autowired
-    private DatabaseService databaseService;
+@EnableScheduling
+public class InteractiveChatbotApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(InteractiveChatbotApplication.class, args);
-    }
-
-    @Override
-    public void run(String... args) throws Exception {
-        // Example query execution
-        String query = "SELECT * FROM data";
-        List<Map<String, Object>> results = databaseService.executeQuery(query);
-        for (Map<String, Object> row : results) {
-            System.out.println(row);
-        }
-
-        // Check Base64 encoded key
+        SpringApplication application = new SpringApplication(InteractiveChatbotApplication.class);
+        // Records every startup step so boot time can be inspected (/actuator/startup and the startup report)
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
 
 }
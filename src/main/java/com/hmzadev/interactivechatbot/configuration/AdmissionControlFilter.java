@@ -0,0 +1,190 @@
+package com.hmzadev.interactivechatbot.configuration;
+
+import com.hmzadev.interactivechatbot.services.AdmissionControlService;
+import com.hmzadev.interactivechatbot.services.AdmissionControlService.Permit;
+import com.hmzadev.interactivechatbot.services.AdmissionControlService.RequestClass;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control in front of the chat endpoints. Runs before Spring Security, so a shed
+ * request costs neither a JWT parse nor a user lookup.
+ * <p>
+ * Clients may send X-Client-Timeout-Ms (how long they are willing to wait). A request whose
+ * client has already given up by the time it is admitted is dropped before any downstream work.
+ * <p>
+ * Queue time starts when the request reaches this filter, unless a proxy stamps X-Request-Start
+ * (t=&lt;epoch seconds, milliseconds or microseconds&gt;, e.g. nginx's t=${msec}). With the stamp, time
+ * spent in the proxy and in Tomcat's accept queue counts against the queue-time deadline too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    static final String CLIENT_TIMEOUT_HEADER = "X-Client-Timeout-Ms";
+    static final String REQUEST_START_HEADER = "X-Request-Start";
+
+    // Older stamps are taken for clock skew or garbage and ignored
+    private static final long MAX_UPSTREAM_WAIT_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final AdmissionControlService admissionControlService;
+    private final ObservationRegistry observationRegistry;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RequestClass requestClass = classify(request);
+        if (requestClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long arrival = arrival(request, System.nanoTime());
+        long callerDeadline = clientDeadline(request, arrival);
+
+        // The wait for a permit gets its own span, so queueing shows up in the trace
+        Observation wait = Observation.createNotStarted("chat.admission.wait", observationRegistry)
+                .contextualName("admission wait")
+                .lowCardinalityKeyValue("class", requestClass.name().toLowerCase())
+                .start();
+        Permit permit = admit(requestClass, arrival, callerDeadline);
+        wait.lowCardinalityKeyValue("admitted", String.valueOf(permit != null)).stop();
+        if (permit == null) {
+            reject(response, requestClass, "Server is busy, please retry later");
+            return;
+        }
+
+        if (System.nanoTime() - callerDeadline > 0) {
+            // The client stopped waiting while we were queued: don't call Rasa or the database for nobody
+            permit.release();
+            admissionControlService.recordAbandoned(requestClass);
+            reject(response, requestClass, "Request expired while queued");
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permit.release();
+            }
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streaming and reactive responses keep their permit until the async work completes
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(release));
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    // Null when the request was not admitted, including when the wait was interrupted
+    private Permit admit(RequestClass requestClass, long arrival, long callerDeadline) {
+        try {
+            return admissionControlService.tryAdmit(requestClass, arrival, callerDeadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private long arrival(HttpServletRequest request, long now) {
+        String header = request.getHeader(REQUEST_START_HEADER);
+        if (header == null) {
+            return now;
+        }
+        try {
+            String value = header.trim();
+            double stamp = Double.parseDouble(value.startsWith("t=") ? value.substring(2) : value);
+            // Seconds (with fraction), milliseconds or microseconds since the epoch, told apart by magnitude
+            long stampMicros = stamp < 1e11 ? (long) (stamp * 1e6) : stamp < 1e14 ? (long) (stamp * 1e3) : (long) stamp;
+            long waitedMicros = System.currentTimeMillis() * 1000 - stampMicros;
+            if (waitedMicros < 0 || waitedMicros > MAX_UPSTREAM_WAIT_MICROS) {
+                return now;
+            }
+            return now - TimeUnit.MICROSECONDS.toNanos(waitedMicros);
+        } catch (NumberFormatException e) {
+            return now;
+        }
+    }
+
+    private long clientDeadline(HttpServletRequest request, long arrival) {
+        String header = request.getHeader(CLIENT_TIMEOUT_HEADER);
+        if (header != null) {
+            try {
+                return arrival + TimeUnit.MILLISECONDS.toNanos(Long.parseLong(header.trim()));
+            } catch (NumberFormatException ignored) {
+                // Fall through to "no client deadline"
+            }
+        }
+        return arrival + TimeUnit.DAYS.toNanos(1);
+    }
+
+    private void reject(HttpServletResponse response, RequestClass requestClass, String message) throws IOException {
+        response.setHeader("Retry-After", String.valueOf(admissionControlService.retryAfterSeconds(requestClass)));
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.getWriter().write(message);
+    }
+
+    private RequestClass classify(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.startsWith("/api/v1/auth/")) {
+            return RequestClass.AUTH;
+        }
+        if (path.startsWith("/reactive/")) {
+            path = path.substring("/reactive".length());
+        }
+        if (path.equals("/chat-sessions/ask") || path.equals("/chat/ask")
+                || path.equals("/chat-sessions/messages/add")) {
+            return RequestClass.ASK;
+        }
+        if (path.startsWith("/chat-sessions/") || path.startsWith("/messages/")) {
+            return RequestClass.READ;
+        }
+        return null;
+    }
+
+    private record ReleasingAsyncListener(Runnable release) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
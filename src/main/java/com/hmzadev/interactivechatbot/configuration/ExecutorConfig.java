@@ -0,0 +1,71 @@
+package com.hmzadev.interactivechatbot.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutorConfig implements WebMvcConfigurer {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${chat.executor.pool-size:32}")
+    private int poolSize;
+
+    @Value("${chat.stream-executor.pool-size:16}")
+    private int streamPoolSize;
+
+    // Executor for blocking work that runs off the request thread (Rasa calls, SQL, message saves)
+    @Bean(name = "chatExecutor")
+    public AsyncTaskExecutor chatExecutor() {
+        return createExecutor("chat-", poolSize);
+    }
+
+    // Runs whole requests that do not arrive on a Tomcat thread (WebSocket frames). Kept apart from
+    // chatExecutor so a request waiting on its stages can never occupy the threads those stages need.
+    @Bean(name = "chatRequestExecutor")
+    public AsyncTaskExecutor chatRequestExecutor() {
+        return createExecutor("chat-request-", poolSize);
+    }
+
+    // Writes streaming responses (StreamingResponseBody). A slow history client blocks one of these
+    // threads for as long as it reads, so they get their own pool rather than the WebSocket asks' one.
+    @Bean(name = "chatStreamExecutor")
+    public AsyncTaskExecutor chatStreamExecutor() {
+        return createExecutor("chat-stream-", streamPoolSize);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(chatStreamExecutor());
+    }
+
+    // Tasks carry the submitting thread's observation (and so its trace span) onto the worker thread
+    private AsyncTaskExecutor createExecutor(String threadNamePrefix, int poolSize) {
+        if (virtualThreadsEnabled) {
+            // One cheap virtual thread per task; blocking I/O unmounts it from the carrier thread
+            TaskExecutorAdapter executor = new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name(threadNamePrefix + "vt-", 0).factory()));
+            executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize * 10);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.initialize();
+        return executor;
+    }
+}
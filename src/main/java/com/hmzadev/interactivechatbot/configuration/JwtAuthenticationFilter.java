@@ -1,5 +1,7 @@
 package com.hmzadev.interactivechatbot.configuration;
 
+import com.hmzadev.interactivechatbot.services.ChatFlightEvents;
+import com.hmzadev.interactivechatbot.services.ChatMetrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,6 +24,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final ChatMetrics chatMetrics;
 
     @Override
     protected void doFilterInternal(
@@ -41,15 +44,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
+        ChatFlightEvents.TokenVerification event = new ChatFlightEvents.TokenVerification();
+        event.begin();
+        boolean valid = false;
+        long verifyStart = System.nanoTime();
         username = jwtService.extractUsername(jwt);
+        long verifyNanos = System.nanoTime() - verifyStart;
 
         // Debugging: Log the extracted username and token
         System.out.println("Extracted Username: " + username);
         System.out.println("JWT: " + jwt);
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(jwt, userDetails) && !jwtService.checkClockSkew(jwt)) {
+            UserDetails userDetails = chatMetrics.time(ChatMetrics.USER_LOOKUP,
+                    () -> this.userDetailsService.loadUserByUsername(username));
+            long validateStart = System.nanoTime();
+            valid = jwtService.isTokenValid(jwt, userDetails) && !jwtService.checkClockSkew(jwt);
+            verifyNanos += System.nanoTime() - validateStart;
+            if (valid) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -61,6 +73,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
+        chatMetrics.record(ChatMetrics.JWT_VERIFY, verifyNanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.verifyTime = verifyNanos;
+            event.valid = valid;
+            event.commit();
+        }
         filterChain.doFilter(request, response);
     }
 
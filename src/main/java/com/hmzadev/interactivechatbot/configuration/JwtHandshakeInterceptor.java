@@ -0,0 +1,102 @@
+package com.hmzadev.interactivechatbot.configuration;
+
+import com.hmzadev.interactivechatbot.dao.ChatSession;
+import com.hmzadev.interactivechatbot.services.ChatSessionService;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Authenticates a chat WebSocket once, at handshake time. Browsers cannot set headers on a
+ * WebSocket upgrade, so besides the Authorization header the JWT is accepted as a subprotocol:
+ * new WebSocket(url, ["bearer", token]). The server answers with the "bearer" subprotocol only.
+ * Query parameters are not accepted, since they end up in access logs.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String BEARER_SUBPROTOCOL = "bearer";
+
+    public static final String USERNAME_ATTRIBUTE = "username";
+    public static final String ROLE_ATTRIBUTE = "role";
+    public static final String SESSION_ID_ATTRIBUTE = "chatSessionId";
+
+    private final JwtService jwtService;
+    private final ChatSessionService chatSessionService;
+
+    @Override
+    public boolean beforeHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                                   @NonNull WebSocketHandler wsHandler, @NonNull Map<String, Object> attributes) {
+        String token = extractToken(request);
+        Long sessionId = extractSessionId(request);
+        if (token == null || sessionId == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        String username;
+        try {
+            // Parsing verifies both the signature and the expiration
+            username = jwtService.extractUsername(token);
+        } catch (Exception e) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        Optional<ChatSession> chatSessionOpt = chatSessionService.getChatSessionById(sessionId);
+        if (chatSessionOpt.isEmpty() || !chatSessionOpt.get().getUser().getUsername().equals(username)) {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+
+        attributes.put(USERNAME_ATTRIBUTE, username);
+        attributes.put(ROLE_ATTRIBUTE, chatSessionOpt.get().getUser().getRole());
+        attributes.put(SESSION_ID_ATTRIBUTE, sessionId);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                               @NonNull WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private String extractToken(ServerHttpRequest request) {
+        String authHeader = request.getHeaders().getFirst("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        // Sec-WebSocket-Protocol: bearer, <token>
+        List<String> protocols = request.getHeaders().get(WebSocketHttpHeaders.SEC_WEBSOCKET_PROTOCOL);
+        if (protocols == null) {
+            return null;
+        }
+        List<String> values = protocols.stream()
+                .flatMap(header -> Arrays.stream(header.split(",")))
+                .map(String::trim)
+                .toList();
+        int bearer = values.indexOf(BEARER_SUBPROTOCOL);
+        return bearer >= 0 && bearer + 1 < values.size() ? values.get(bearer + 1) : null;
+    }
+
+    // Path is /ws/chat-sessions/{sessionId}
+    private Long extractSessionId(ServerHttpRequest request) {
+        String path = request.getURI().getPath();
+        try {
+            return Long.valueOf(path.substring(path.lastIndexOf('/') + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
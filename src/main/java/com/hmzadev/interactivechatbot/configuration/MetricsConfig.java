@@ -0,0 +1,54 @@
+package com.hmzadev.interactivechatbot.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmzadev.interactivechatbot.services.ChatMetrics;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final ChatMetrics chatMetrics;
+
+    // Swap Boot's JSON converter for one that records response serialization time
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter jackson) {
+                converters.set(i, new TimedJacksonConverter(jackson.getObjectMapper(), chatMetrics));
+            }
+        }
+    }
+
+    static class TimedJacksonConverter extends MappingJackson2HttpMessageConverter {
+
+        private final ChatMetrics chatMetrics;
+
+        TimedJacksonConverter(ObjectMapper objectMapper, ChatMetrics chatMetrics) {
+            super(objectMapper);
+            this.chatMetrics = chatMetrics;
+        }
+
+        @Override
+        protected void writeInternal(@NonNull Object object, Type type, @NonNull HttpOutputMessage outputMessage)
+                throws IOException, HttpMessageNotWritableException {
+            long start = System.nanoTime();
+            try {
+                super.writeInternal(object, type, outputMessage);
+            } finally {
+                chatMetrics.record(ChatMetrics.SERIALIZATION, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.hmzadev.interactivechatbot.configuration;
+
+import com.hmzadev.interactivechatbot.dao.Role;
+import com.hmzadev.interactivechatbot.dao.User;
+import com.hmzadev.interactivechatbot.services.RateLimitService;
+import com.hmzadev.interactivechatbot.services.RateLimitService.BucketType;
+import com.hmzadev.interactivechatbot.services.RateLimitService.Decision;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Runs right after JwtAuthenticationFilter so the caller's username and role are known
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitService rateLimitService;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        BucketType type = classify(request);
+        if (type == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key;
+        Role role = null;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            key = "user:" + user.getUsername();
+            role = user.getRole();
+        } else {
+            // No valid JWT (e.g. /chat/ask): fall back to the client address
+            key = "ip:" + request.getRemoteAddr();
+        }
+
+        Decision decision = rateLimitService.tryAcquire(key, role, type);
+        response.setHeader("X-RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("X-RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+
+        if (!decision.allowed()) {
+            response.setHeader("Retry-After", String.valueOf(decision.retryAfterSeconds()));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.getWriter().write("Too many requests");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private BucketType classify(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.startsWith("/reactive/")) {
+            path = path.substring("/reactive".length());
+        }
+        String method = request.getMethod();
+
+        if (path.equals("/chat-sessions/ask") || path.equals("/chat/ask")
+                || path.equals("/chat-sessions/messages/add")) {
+            return BucketType.QUESTIONS;
+        }
+        if ("GET".equals(method) && (path.startsWith("/chat-sessions/") || path.startsWith("/messages/"))) {
+            return BucketType.READS;
+        }
+        return null;
+    }
+}
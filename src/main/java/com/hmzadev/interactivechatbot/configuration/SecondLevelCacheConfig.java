@@ -0,0 +1,89 @@
+package com.hmzadev.interactivechatbot.configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level and query cache on Caffeine (through JCache). Every region is declared
+ * here with its own size limit; an entity or query pointing at an undeclared region fails at
+ * startup instead of silently getting an unbounded default cache.
+ * <p>
+ * The caches are local to the instance. Changes made on other instances arrive through the
+ * cache_invalidations table (see CacheInvalidationLog).
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String USERS_REGION = "users";
+    public static final String CHAT_SESSIONS_REGION = "chat-sessions";
+    public static final String USER_BY_USERNAME_REGION = "user-by-username";
+    public static final String BOT_PAYLOADS_REGION = "bot-payloads";
+
+    // Regions Hibernate always uses once the query cache is on
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${chat.cache.users.max-entries:10000}")
+    private long maxUsers;
+
+    @Value("${chat.cache.chat-sessions.max-entries:50000}")
+    private long maxChatSessions;
+
+    @Value("${chat.cache.bot-payloads.max-entries:5000}")
+    private long maxBotPayloads;
+
+    @Value("${chat.cache.queries.max-entries:10000}")
+    private long maxQueryResults;
+
+    @Value("${chat.cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-second-level"), getClass().getClassLoader());
+        OptionalLong ttl = OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes));
+        createRegion(cacheManager, USERS_REGION, OptionalLong.of(maxUsers), ttl);
+        createRegion(cacheManager, CHAT_SESSIONS_REGION, OptionalLong.of(maxChatSessions), ttl);
+        createRegion(cacheManager, USER_BY_USERNAME_REGION, OptionalLong.of(maxUsers), ttl);
+        createRegion(cacheManager, BOT_PAYLOADS_REGION, OptionalLong.of(maxBotPayloads), ttl);
+        createRegion(cacheManager, QUERY_RESULTS_REGION, OptionalLong.of(maxQueryResults), ttl);
+        // One entry per table; evicting these would let stale query results through
+        createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, OptionalLong.empty(), OptionalLong.empty());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, OptionalLong maximumSize,
+                                     OptionalLong expireAfterWriteNanos) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maximumSize);
+        configuration.setExpireAfterWrite(expireAfterWriteNanos);
+        cacheManager.createCache(name, configuration);
+    }
+}
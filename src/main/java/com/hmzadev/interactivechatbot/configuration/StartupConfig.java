@@ -0,0 +1,42 @@
+package com.hmzadev.interactivechatbot.configuration;
+
+import jakarta.servlet.Filter;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+
+@Configuration
+public class StartupConfig {
+
+    // With spring.main.lazy-initialization (fast-startup profile) everything else is created on first use,
+    // but the request filters and the data source must be ready before the first request arrives
+    @Bean
+    static LazyInitializationExcludeFilter eagerInfrastructure() {
+        return LazyInitializationExcludeFilter.forBeanTypes(Filter.class, SecurityFilterChain.class, DataSource.class);
+    }
+
+    // Scheduled methods are only registered once their bean exists, so a lazy bean's sweeps and polls
+    // (cache invalidation, spill cleanup, idle eviction) would not run until something first used it
+    @Bean
+    static LazyInitializationExcludeFilter eagerScheduledBeans() {
+        return (beanName, beanDefinition, beanType) -> {
+            if (beanType == null) {
+                return false;
+            }
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(beanType))) {
+                if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.hmzadev.interactivechatbot.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.stream.StreamSupport;
+
+// Logs the slowest startup steps once the application is ready; the full timeline is at /actuator/startup
+@Component
+public class StartupReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupReport.class);
+
+    @Value("${chat.startup.report.top-steps:15}")
+    private int topSteps;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+
+        StartupTimeline timeline = buffering.getBufferedTimeline();
+        StringBuilder report = new StringBuilder();
+        timeline.getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(topSteps)
+                .forEach(timelineEvent -> report.append(String.format("%n  %6d ms  %s%s",
+                        timelineEvent.getDuration().toMillis(),
+                        timelineEvent.getStartupStep().getName(),
+                        describeTags(timelineEvent.getStartupStep()))));
+
+        logger.info("Application ready in {} ms; slowest startup steps:{}",
+                event.getTimeTaken().toMillis(), report);
+    }
+
+    private String describeTags(StartupStep step) {
+        StringBuilder tags = new StringBuilder();
+        StreamSupport.stream(step.getTags().spliterator(), false)
+                .forEach(tag -> tags.append(' ').append(tag.getKey()).append('=').append(tag.getValue()));
+        return tags.toString();
+    }
+}
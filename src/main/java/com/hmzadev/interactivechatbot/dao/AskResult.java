@@ -0,0 +1,51 @@
+package com.hmzadev.interactivechatbot.dao;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class AskResult {
+
+    public enum Status {
+        OK,
+        NO_DATA,
+        USER_NOT_FOUND,
+        FORBIDDEN,
+        RASA_UNAVAILABLE,
+        EXTRACTION_FAILED,
+        // The chat executor was saturated; the client should retry later
+        OVERLOADED,
+        // A lookup or save stage ran past its timeout; the client should retry later
+        TIMEOUT
+    }
+
+    private Status status;
+
+    private Long chatSessionId;
+
+    private String botResponse;
+
+    private String sqlQuery;
+
+    private List<Map<String, Object>> queryResult;
+
+    // Stage name -> duration in milliseconds
+    private Map<String, Double> stageTimings;
+
+    // Set when the result came from a materialized hot query: when that result was computed
+    private Instant resultAsOf;
+
+    // Set when the result was spilled to disk: queryResult is only its first page
+    private String resultHandle;
+
+    private Long totalRows;
+
+    public static AskResult of(Status status) {
+        return new AskResult(status, null, null, null, null, Map.of(), null, null, null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.hmzadev.interactivechatbot.dao;
+
+import com.hmzadev.interactivechatbot.configuration.SecondLevelCacheConfig;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.Length;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Content of a bot message (a Rasa reply, or the SQL extracted from one) stored once and shared by every
+// bot message with the same content, keyed by SHA-256
+@Entity
+@Table(name = "bot_payloads")
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = SecondLevelCacheConfig.BOT_PAYLOADS_REGION)
+@Data
+public class BotPayload {
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false, length = Length.LONG32)
+    private String content;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
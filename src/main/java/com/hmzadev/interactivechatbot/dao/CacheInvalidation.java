@@ -0,0 +1,30 @@
+package com.hmzadev.interactivechatbot.dao;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Row of the cross-instance cache change log; written and polled with plain JDBC by CacheInvalidationLog
+@Entity
+@Table(name = "cache_invalidations",
+        indexes = @Index(name = "idx_cache_invalidations_created_at", columnList = "createdAt"))
+@Data
+public class CacheInvalidation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String region;
+
+    @Column(length = 64)
+    private String entityId;
+
+    // Instance that made the change; it already evicted its own cache
+    @Column(nullable = false, length = 36)
+    private String origin;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,7 +1,15 @@
 package com.hmzadev.interactivechatbot.dao;
 
+import com.hmzadev.interactivechatbot.configuration.SecondLevelCacheConfig;
+import com.hmzadev.interactivechatbot.services.CacheInvalidationListener;
+import com.hmzadev.interactivechatbot.services.ChatSessionOwnershipListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.Set;
@@ -9,13 +17,18 @@ import java.util.Set;
 @Entity
 @Table(name = "chat_sessions")
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.CHAT_SESSIONS_REGION)
+@EntityListeners({ChatSessionOwnershipListener.class, CacheInvalidationListener.class})
 public class ChatSession {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Not serialized: the owner is the caller, and its sessions would lead straight back here
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
     private User user;
 
     @Column(nullable = false)
@@ -25,5 +38,8 @@ public class ChatSession {
     private String name;
 
     @OneToMany(mappedBy = "chatSession", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Set<Message> messages;
 }
@@ -1,11 +1,17 @@
 package com.hmzadev.interactivechatbot.dao;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        // Serves the history cursor: one session's messages in timestamp order
+        @Index(name = "idx_messages_session_timestamp", columnList = "chat_session_id, timestamp")
+})
 @Data
 public class    Message {
     @Id
@@ -26,6 +32,25 @@ public class    Message {
     @Column(nullable = false)
     private SenderType sender;  // Enum for sender (USER or BOT)
 
+    // Set when the content lives in bot_payloads (see BotPayloadService); content is then empty
+    @Column(name = "payload_hash", length = 64)
+    @JsonIgnore
+    private String payloadHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "payload_hash", insertable = false, updatable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private BotPayload payload;
+
+    // Payload of a message saved in this request, so reading it back needs no load
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String payloadContent;
+
     // Default constructor
     public Message() {}
 
@@ -36,4 +61,14 @@ public class    Message {
         this.timestamp = timestamp;
         this.sender = sender;
     }
+
+    public String getContent() {
+        if (payloadContent != null) {
+            return payloadContent;
+        }
+        if (payloadHash != null && payload != null) {
+            return payload.getContent();
+        }
+        return content;
+    }
 }
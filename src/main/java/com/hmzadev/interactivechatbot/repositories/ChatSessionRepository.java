@@ -3,6 +3,7 @@ package com.hmzadev.interactivechatbot.repositories;
 import com.hmzadev.interactivechatbot.dao.ChatSession;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,4 +18,8 @@ public interface ChatSessionRepository extends JpaRepository<ChatSession, Long>
 
     List<ChatSession> findByUserUsernameAndNameContainingIgnoreCase(String username, String name);
 
+    // Access checks only need the owner's id, not the session and user rows
+    @Query("SELECT c.user.id FROM ChatSession c WHERE c.id = :id")
+    Optional<Long> findOwnerIdById(@Param("id") Long id);
+
 }
@@ -2,11 +2,19 @@ package com.hmzadev.interactivechatbot.repositories;
 
 import com.hmzadev.interactivechatbot.dao.ChatSession;
 import com.hmzadev.interactivechatbot.dao.Message;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
 
+// Message lists fetch the shared bot payload with the rows: getContent() may run after the session is closed
 public interface MessageRepository extends JpaRepository<Message, Long> {
+    @EntityGraph(attributePaths = "payload")
     List<Message> findByChatSessionId(Long sessionId);
+    @EntityGraph(attributePaths = "payload")
     List<Message> findByChatSession(ChatSession chatSession);
+    boolean existsByChatSessionId(Long sessionId);
+    @EntityGraph(attributePaths = "payload")
+    List<Message> findByChatSessionIdOrderByTimestampDescIdDesc(Long sessionId, Pageable pageable);
 }
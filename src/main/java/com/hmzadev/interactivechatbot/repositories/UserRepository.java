@@ -1,11 +1,22 @@
 package com.hmzadev.interactivechatbot.repositories;
 
+import com.hmzadev.interactivechatbot.configuration.SecondLevelCacheConfig;
 import com.hmzadev.interactivechatbot.dao.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByEmail(String email);
+
+    // Runs several times per request (filter, controllers, services); the result ids are cached
+    // and the User rows come from the entity region
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.USER_BY_USERNAME_REGION)
+    })
     Optional<User> findByUsername(String username);
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.hmzadev.interactivechatbot.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limits per request class. A request either gets a permit within its class's
+ * queue-time deadline or is shed; the number of requests allowed to wait is bounded too, so
+ * overload turns into fast 503s instead of an ever-growing Tomcat queue.
+ * <p>
+ * Waiting requests park their Tomcat worker thread. On platform threads the running and waiting
+ * requests of all classes together must therefore fit in server.tomcat.threads.max, or one busy
+ * class could take every worker and starve the others. Queues that do not fit are scaled down at
+ * startup.
+ */
+@Service
+public class AdmissionControlService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlService.class);
+
+    public enum RequestClass {
+        AUTH("auth", 20, 20, 3000),
+        READ("read", 150, 50, 1000),
+        ASK("ask", 50, 50, 2000);
+
+        private final String propertyName;
+        private final int defaultMaxConcurrent;
+        private final int defaultMaxQueue;
+        private final long defaultQueueTimeoutMs;
+
+        RequestClass(String propertyName, int defaultMaxConcurrent, int defaultMaxQueue, long defaultQueueTimeoutMs) {
+            this.propertyName = propertyName;
+            this.defaultMaxConcurrent = defaultMaxConcurrent;
+            this.defaultMaxQueue = defaultMaxQueue;
+            this.defaultQueueTimeoutMs = defaultQueueTimeoutMs;
+        }
+    }
+
+    public interface Permit {
+        void release();
+    }
+
+    private final Map<RequestClass, Lane> lanes = new EnumMap<>(RequestClass.class);
+
+    public AdmissionControlService(Environment environment, MeterRegistry meterRegistry) {
+        Map<RequestClass, Integer> maxConcurrent = new EnumMap<>(RequestClass.class);
+        Map<RequestClass, Integer> maxQueue = new EnumMap<>(RequestClass.class);
+        for (RequestClass requestClass : RequestClass.values()) {
+            String prefix = "admission." + requestClass.propertyName + ".";
+            maxConcurrent.put(requestClass, environment.getProperty(prefix + "max-concurrent", Integer.class,
+                    requestClass.defaultMaxConcurrent));
+            maxQueue.put(requestClass, environment.getProperty(prefix + "max-queue", Integer.class,
+                    requestClass.defaultMaxQueue));
+        }
+        // Virtual threads are not a bounded pool, so parked waiters cost nothing there
+        if (!environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            fitQueuesToWorkerThreads(environment.getProperty("server.tomcat.threads.max", Integer.class, 200),
+                    maxConcurrent, maxQueue);
+        }
+
+        for (RequestClass requestClass : RequestClass.values()) {
+            String prefix = "admission." + requestClass.propertyName + ".";
+            Lane lane = new Lane(
+                    maxConcurrent.get(requestClass),
+                    maxQueue.get(requestClass),
+                    environment.getProperty(prefix + "queue-timeout-ms", Long.class, requestClass.defaultQueueTimeoutMs),
+                    meterRegistry.counter("chat.admission.rejected", "class", requestClass.propertyName));
+            meterRegistry.gauge("chat.admission.in-flight", List.of(Tag.of("class", requestClass.propertyName)), lane,
+                    l -> l.maxConcurrent - l.permits.availablePermits());
+            meterRegistry.gauge("chat.admission.waiting", List.of(Tag.of("class", requestClass.propertyName)), lane,
+                    l -> l.waiting.get());
+            lanes.put(requestClass, lane);
+        }
+    }
+
+    private static void fitQueuesToWorkerThreads(int workerThreads, Map<RequestClass, Integer> maxConcurrent,
+                                                 Map<RequestClass, Integer> maxQueue) {
+        int concurrent = maxConcurrent.values().stream().mapToInt(Integer::intValue).sum();
+        int queued = maxQueue.values().stream().mapToInt(Integer::intValue).sum();
+        if (concurrent + queued <= workerThreads) {
+            return;
+        }
+        if (concurrent >= workerThreads) {
+            throw new IllegalStateException("admission.*.max-concurrent add up to " + concurrent
+                    + ", which leaves no room in server.tomcat.threads.max=" + workerThreads);
+        }
+        int room = workerThreads - concurrent;
+        maxQueue.replaceAll((requestClass, queue) -> (int) ((long) queue * room / queued));
+        logger.warn("admission.*.max-queue add up to {} but only {} of server.tomcat.threads.max={} are left after "
+                + "max-concurrent; queues scaled down to {}", queued, room, workerThreads, maxQueue);
+    }
+
+    /**
+     * Waits for a permit until the class's queue-time deadline, counted from arrivalNanos (or the
+     * caller's own deadline, if sooner). Returns null when the request should be shed.
+     */
+    public Permit tryAdmit(RequestClass requestClass, long arrivalNanos, long callerDeadlineNanos) throws InterruptedException {
+        Lane lane = lanes.get(requestClass);
+        if (lane.permits.tryAcquire()) {
+            return lane::release;
+        }
+        if (lane.waiting.incrementAndGet() > lane.maxQueue) {
+            lane.waiting.decrementAndGet();
+            lane.rejected.increment();
+            return null;
+        }
+        try {
+            long now = System.nanoTime();
+            long waitNanos = Math.min(arrivalNanos + TimeUnit.MILLISECONDS.toNanos(lane.queueTimeoutMs), callerDeadlineNanos) - now;
+            if (waitNanos > 0 && lane.permits.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+                return lane::release;
+            }
+            lane.rejected.increment();
+            return null;
+        } finally {
+            lane.waiting.decrementAndGet();
+        }
+    }
+
+    public long retryAfterSeconds(RequestClass requestClass) {
+        return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(lanes.get(requestClass).queueTimeoutMs));
+    }
+
+    // Counts a request that was admitted but dropped because its client stopped waiting
+    public void recordAbandoned(RequestClass requestClass) {
+        lanes.get(requestClass).rejected.increment();
+    }
+
+    private static final class Lane {
+        private final int maxConcurrent;
+        private final int maxQueue;
+        private final long queueTimeoutMs;
+        private final Semaphore permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final Counter rejected;
+
+        Lane(int maxConcurrent, int maxQueue, long queueTimeoutMs, Counter rejected) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueue = maxQueue;
+            this.queueTimeoutMs = queueTimeoutMs;
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.rejected = rejected;
+        }
+
+        void release() {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.dao.Message;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Content-addressed storage for bot responses. A bot message whose payload is long enough is
+ * saved with only the payload's hash; the payload itself lives once in bot_payloads.
+ * <p>
+ * Hashes known to be stored are remembered in a small LRU set, so a popular answer costs one
+ * digest and no database round trip. Inserts race harmlessly: a duplicate key means another
+ * writer stored the same content first.
+ */
+@Service
+public class BotPayloadService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Below this the hash reference would not be much smaller than the content itself
+    @Value("${chat.bot-payloads.min-length:128}")
+    private int minLength;
+
+    @Value("${chat.bot-payloads.intern-cache-size:10000}")
+    private int internCacheSize;
+
+    private Set<String> storedHashes;
+    private Counter internHits;
+    private Counter internMisses;
+
+    @PostConstruct
+    void init() {
+        storedHashes = Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > internCacheSize;
+            }
+        }));
+        internHits = meterRegistry.counter("chat.bot-payloads.intern", "result", "hit");
+        internMisses = meterRegistry.counter("chat.bot-payloads.intern", "result", "miss");
+    }
+
+    public boolean shouldExternalize(String content) {
+        return content != null && content.length() >= minLength;
+    }
+
+    // Moves a bot message's content into bot_payloads and points the message at it
+    public void externalize(Message message) {
+        if (message.getPayloadHash() != null || !shouldExternalize(message.getContent())) {
+            return;
+        }
+        String content = message.getContent();
+        message.setPayloadHash(intern(content));
+        message.setPayloadContent(content);
+        message.setContent("");
+    }
+
+    // Ensures the content is stored and returns its hash
+    public String intern(String content) {
+        String hash = hash(content);
+        if (isStored(hash)) {
+            return hash;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO bot_payloads (hash, content, created_at) VALUES (?, ?, ?)",
+                    hash, content, LocalDateTime.now());
+        } catch (DuplicateKeyException e) {
+            // Already stored by another request or instance
+        }
+        markStored(hash);
+        return hash;
+    }
+
+    public boolean isStored(String hash) {
+        boolean stored = storedHashes.contains(hash);
+        (stored ? internHits : internMisses).increment();
+        return stored;
+    }
+
+    public void markStored(String hash) {
+        storedHashes.add(hash);
+    }
+
+    public static String hash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
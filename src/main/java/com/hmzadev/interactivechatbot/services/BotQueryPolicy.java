@@ -0,0 +1,46 @@
+package com.hmzadev.interactivechatbot.services;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Which bot-generated statements are run, shared by the servlet and reactive paths. A statement
+ * is read if its first keyword is SELECT or WITH, after any whitespace, comments and opening
+ * parentheses. Anything else is rejected before it reaches the database.
+ */
+public final class BotQueryPolicy {
+
+    private static final Set<String> READ_OPERATIONS = Set.of("SELECT", "WITH");
+
+    private BotQueryPolicy() {
+    }
+
+    public static boolean isRead(String sql) {
+        return READ_OPERATIONS.contains(operation(sql));
+    }
+
+    // First keyword, upper-cased; empty when the statement has none
+    public static String operation(String sql) {
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c) || c == '(') {
+                i++;
+            } else if (sql.startsWith("--", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else {
+                break;
+            }
+        }
+        int start = i;
+        while (i < length && Character.isLetter(sql.charAt(i))) {
+            i++;
+        }
+        return sql.substring(start, i).toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,44 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.configuration.SecondLevelCacheConfig;
+import com.hmzadev.interactivechatbot.dao.ChatSession;
+import com.hmzadev.interactivechatbot.dao.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Feeds entity changes into the cross-instance invalidation log
+@Component
+public class CacheInvalidationListener {
+
+    // Resolved per call: Hibernate creates this listener while the EntityManagerFactory that the
+    // log depends on is still being built, and a direct reference would make Spring fall back to
+    // an unmanaged instance with a null field
+    @Autowired
+    private ObjectProvider<CacheInvalidationLog> cacheInvalidationLog;
+
+    // Only users: other instances may hold a cached "no such username" result
+    @PostPersist
+    public void created(Object entity) {
+        if (entity instanceof User user) {
+            publish(SecondLevelCacheConfig.USERS_REGION, user.getId());
+        }
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        if (entity instanceof User user) {
+            publish(SecondLevelCacheConfig.USERS_REGION, user.getId());
+        } else if (entity instanceof ChatSession chatSession) {
+            publish(SecondLevelCacheConfig.CHAT_SESSIONS_REGION, chatSession.getId());
+        }
+    }
+
+    private void publish(String region, Object entityId) {
+        cacheInvalidationLog.getObject().publish(region, entityId);
+    }
+}
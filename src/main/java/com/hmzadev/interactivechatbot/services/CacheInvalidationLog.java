@@ -0,0 +1,176 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.configuration.SecondLevelCacheConfig;
+import com.hmzadev.interactivechatbot.dao.ChatSession;
+import com.hmzadev.interactivechatbot.dao.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the second-level caches of several instances coherent without a cache server. Entity
+ * changes are appended to cache_invalidations in the same transaction as the change itself, and
+ * every instance polls the table and evicts what other instances changed.
+ * <p>
+ * Identity values can commit out of order, so each poll also re-reads a short window of recent
+ * rows and applies the ones it has not seen yet. To simulate a second instance locally, insert a
+ * row with any other origin and call poll().
+ * <p>
+ * Message writes and new sessions are logged the same way, under the SESSION_MESSAGES and
+ * SESSION_LISTS pseudo-regions, so other instances move their ETag versions and drop their
+ * hot-session rings.
+ * <p>
+ * That is an extra insert per message and a poll every chat.cache.invalidation.poll-ms, which a
+ * single instance does not need, so it is off unless chat.cache.invalidation.enabled is set.
+ */
+@Service
+public class CacheInvalidationLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationLog.class);
+
+    // Not second-level cache regions: entity_id is a session id and a username hash respectively
+    public static final String SESSION_MESSAGES = "session-messages";
+    public static final String SESSION_LISTS = "session-lists";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SessionOwnershipCache sessionOwnershipCache;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private HotSessionCache hotSessionCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chat.cache.invalidation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.cache.invalidation.overlap-seconds:30}")
+    private long overlapSeconds;
+
+    @Value("${chat.cache.invalidation.retention-minutes:10}")
+    private long retentionMinutes;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Guarded by poll(); the scheduler and a manual call never apply the same row twice
+    private long lastSeenId = -1;
+    private Set<Long> seenInWindow = new HashSet<>();
+
+    private Counter published;
+    private Counter applied;
+
+    @PostConstruct
+    void init() {
+        published = meterRegistry.counter("chat.cache.invalidations", "direction", "published");
+        applied = meterRegistry.counter("chat.cache.invalidations", "direction", "applied");
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // Entity changes publish inside their transaction, so the log row commits (or rolls back) with
+    // them; session versions publish after the message is stored
+    public void publish(String region, Object entityId) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.update(
+                "INSERT INTO cache_invalidations (region, entity_id, origin, created_at) VALUES (?, ?, ?, ?)",
+                region, entityId != null ? entityId.toString() : null, nodeId, LocalDateTime.now());
+        published.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${chat.cache.invalidation.poll-ms:1000}")
+    public synchronized void poll() {
+        if (!enabled) {
+            return;
+        }
+        if (lastSeenId < 0) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidations", Long.class);
+            lastSeenId = maxId != null ? maxId : 0;
+        }
+
+        Set<Long> window = new HashSet<>();
+        jdbcTemplate.query(
+                "SELECT id, region, entity_id, origin FROM cache_invalidations WHERE id > ? OR created_at >= ? ORDER BY id",
+                rs -> {
+                    long id = rs.getLong(1);
+                    window.add(id);
+                    lastSeenId = Math.max(lastSeenId, id);
+                    if (!seenInWindow.contains(id) && !nodeId.equals(rs.getString(4))) {
+                        apply(rs.getString(2), rs.getString(3));
+                    }
+                },
+                lastSeenId, LocalDateTime.now().minusSeconds(overlapSeconds));
+        seenInWindow = window;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.cache.invalidation.purge-ms:300000}")
+    public void purge() {
+        if (enabled) {
+            jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?",
+                    LocalDateTime.now().minusMinutes(retentionMinutes));
+        }
+    }
+
+    private void apply(String region, String entityId) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        switch (region) {
+            case SecondLevelCacheConfig.USERS_REGION -> {
+                if (entityId != null) {
+                    cache.evictEntityData(User.class, Long.valueOf(entityId));
+                }
+                // A new or renamed user changes username lookups, including cached misses
+                cache.evictQueryRegion(SecondLevelCacheConfig.USER_BY_USERNAME_REGION);
+            }
+            case SecondLevelCacheConfig.CHAT_SESSIONS_REGION -> {
+                if (entityId != null) {
+                    cache.evictEntityData(ChatSession.class, Long.valueOf(entityId));
+                    sessionOwnershipCache.invalidate(Long.parseLong(entityId));
+                }
+            }
+            case SESSION_MESSAGES -> {
+                if (entityId != null) {
+                    long sessionId = Long.parseLong(entityId);
+                    // Bump before dropping the ring, so a fill that read before this write is discarded
+                    resourceVersionService.applySessionChange(sessionId);
+                    hotSessionCache.invalidate(sessionId);
+                }
+            }
+            case SESSION_LISTS -> {
+                if (entityId != null) {
+                    resourceVersionService.applySessionListChange(Integer.parseInt(entityId));
+                }
+            }
+            default -> {
+                logger.warn("Unknown cache region '{}' in cache_invalidations, evicting all second-level data", region);
+                cache.evictAllRegions();
+            }
+        }
+        applied.increment();
+    }
+}
@@ -0,0 +1,260 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.dao.AskResult;
+import com.hmzadev.interactivechatbot.dao.ChatSession;
+import com.hmzadev.interactivechatbot.dao.Message;
+import com.hmzadev.interactivechatbot.dao.SenderType;
+import com.hmzadev.interactivechatbot.dao.User;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * The ask pipeline shared by the REST endpoint and the WebSocket channel:
+ * question -> Rasa -> SQL extraction -> query execution, with both sides of the
+ * conversation stored in the chat session.
+ * <p>
+ * Independent stages overlap: the user and session-owner lookups run together, the user message is
+ * saved while Rasa answers, and the bot message is saved after the response has been returned.
+ * Every stage has its own timeout; a stage that times out is cancelled.
+ */
+@Service
+public class ChatAskService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatAskService.class);
+
+    // Lets callers observe intermediate results, e.g. to push the bot reply before the query finishes
+    public interface AskListener {
+        AskListener NONE = new AskListener() {
+        };
+
+        default void onBotResponse(Long chatSessionId, String botResponse, String sqlQuery) {
+        }
+    }
+
+    @Autowired
+    private ChatSessionService chatSessionService;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RasaService rasaService;
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private QueryResultSpillService queryResultSpillService;
+
+    @Autowired
+    @Qualifier("chatExecutor")
+    private AsyncTaskExecutor chatExecutor;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Value("${chat.ask.lookup-timeout-ms:2000}")
+    private long lookupTimeoutMs;
+
+    @Value("${chat.ask.save-timeout-ms:5000}")
+    private long saveTimeoutMs;
+
+    @Value("${chat.ask.rasa-timeout-ms:10000}")
+    private long rasaTimeoutMs;
+
+    @Value("${chat.ask.sql-timeout-ms:15000}")
+    private long sqlTimeoutMs;
+
+    public AskResult ask(String username, Long sessionId, String question) {
+        return ask(username, sessionId, question, AskListener.NONE);
+    }
+
+    // Observed as "chat.ask": a child of the HTTP server span, or the root span for WebSocket asks
+    public AskResult ask(String username, Long sessionId, String question, AskListener listener) {
+        Observation observation = Observation.createNotStarted("chat.ask", observationRegistry)
+                .contextualName("chat ask")
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            AskResult result;
+            try {
+                result = doAsk(username, sessionId, question, listener);
+            } catch (RejectedExecutionException e) {
+                // Stage queue full: shed the ask instead of failing it with a 500
+                logger.warn("Ask rejected, chat executor saturated: {}", e.getMessage());
+                result = AskResult.of(AskResult.Status.OVERLOADED);
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof TimeoutException)) {
+                    throw e;
+                }
+                // The user, session and save stages have no fallback; stage() already logged which one ran out
+                result = AskResult.of(AskResult.Status.TIMEOUT);
+            }
+            observation.lowCardinalityKeyValue("outcome", result.getStatus().name());
+            return result;
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private AskResult doAsk(String username, Long sessionId, String question, AskListener listener) {
+        StageTimer timer = new StageTimer(observationRegistry);
+
+        // Step 1: Load the user and the requested chat session concurrently
+        CompletableFuture<Optional<User>> userFuture =
+                stage(timer, "user", lookupTimeoutMs, () -> userService.findByUsername(username));
+        CompletableFuture<Optional<Long>> ownerFuture = sessionId != null
+                ? stage(timer, "session", lookupTimeoutMs, () -> chatSessionService.findOwnerId(sessionId))
+                : CompletableFuture.completedFuture(Optional.empty());
+
+        User user = join(userFuture).orElse(null);
+        if (user == null) {
+            ownerFuture.cancel(true);
+            return result(AskResult.Status.USER_NOT_FOUND, null, null, null, null, timer);
+        }
+
+        ChatSession chatSession;
+        if (sessionId != null) {
+            Optional<Long> ownerId = join(ownerFuture);
+            if (ownerId.isEmpty() || !ownerId.get().equals(user.getId())) {
+                return result(AskResult.Status.FORBIDDEN, null, null, null, null, timer);
+            }
+            chatSession = chatSessionService.getReference(sessionId);
+        } else {
+            chatSession = timer.time("session", () -> getOrCreateChatSession(user, username, null));
+        }
+
+        // Step 2: Save the user's question while Rasa works on it
+        Message userMessage = new Message(chatSession, question, LocalDateTime.now(), SenderType.USER);
+        CompletableFuture<Message> userMessageSaved =
+                stage(timer, "save-user", saveTimeoutMs, () -> messageService.saveMessage(userMessage));
+
+        // Step 3: Forward the user's question to Rasa bot and get the SQL query
+        String botResponse = join(stage(timer, "rasa", rasaTimeoutMs,
+                () -> rasaService.forwardQuestionToRasaBot(question)).exceptionally(e -> null));
+        if (botResponse == null) {
+            return result(AskResult.Status.RASA_UNAVAILABLE, chatSession.getId(), null, null, null, timer);
+        }
+
+        // Step 4: Extract the SQL query from the Rasa bot response
+        String sqlQuery = timer.time("extract", () -> rasaService.extractAnswerFromResponse(botResponse));
+        if (sqlQuery == null) {
+            return result(AskResult.Status.EXTRACTION_FAILED, chatSession.getId(), botResponse, null, null, timer);
+        }
+        listener.onBotResponse(chatSession.getId(), botResponse, sqlQuery);
+
+        // Step 5: Execute the SQL query and retrieve the result
+        List<Map<String, Object>> queryResult = join(stage(timer, "sql", sqlTimeoutMs,
+                () -> databaseService.executeBotQuery(sqlQuery, question)).exceptionally(e -> null));
+
+        // The user message must be stored before we answer, as it was before the stages overlapped
+        join(userMessageSaved);
+
+        if (queryResult instanceof QueryResultSpillService.SpilledRows spilled) {
+            queryResultSpillService.claim(spilled.handle(), username);
+        }
+
+        if (queryResult == null || queryResult.isEmpty()) {
+            return result(AskResult.Status.NO_DATA, chatSession.getId(), botResponse, sqlQuery, queryResult, timer);
+        }
+
+        // Step 6: Save the bot's response in the background, after the user's message
+        Message botMessage = new Message(chatSession, botResponse, LocalDateTime.now(), SenderType.BOT);
+        try {
+            stage(timer, "save-bot", saveTimeoutMs, () -> messageService.saveMessage(botMessage))
+                    .exceptionally(e -> {
+                        logger.error("Failed to save bot response for chat session {}", chatSession.getId(), e);
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            // The answer is ready; with no worker free, store the reply on this thread rather than lose it
+            try {
+                timer.time("save-bot", () -> messageService.saveMessage(botMessage));
+            } catch (RuntimeException saveError) {
+                logger.error("Failed to save bot response for chat session {}", chatSession.getId(), saveError);
+            }
+        }
+
+        return result(AskResult.Status.OK, chatSession.getId(), botResponse, sqlQuery, queryResult, timer);
+    }
+
+    // Runs one stage on the chat executor; on timeout the future fails and the running task is interrupted.
+    // Throws RejectedExecutionException when the executor's queue is full.
+    private <T> CompletableFuture<T> stage(StageTimer timer, String name, long timeoutMs, Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = chatExecutor.submit(() -> {
+            try {
+                result.complete(timer.time(name, work));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((value, error) -> {
+            if (error instanceof TimeoutException) {
+                logger.warn("Ask stage '{}' timed out after {} ms", name, timeoutMs);
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private AskResult result(AskResult.Status status, Long chatSessionId, String botResponse, String sqlQuery,
+                             List<Map<String, Object>> queryResult, StageTimer timer) {
+        Instant resultAsOf = queryResult instanceof QueryMaterializationService.MaterializedRows materialized
+                ? materialized.refreshedAt() : null;
+        QueryResultSpillService.SpilledRows spilled = queryResult instanceof QueryResultSpillService.SpilledRows rows
+                ? rows : null;
+        return new AskResult(status, chatSessionId, botResponse, sqlQuery, queryResult, timer.getDurationsMillis(),
+                resultAsOf, spilled != null ? spilled.handle() : null, spilled != null ? spilled.totalRows() : null);
+    }
+
+    private ChatSession getOrCreateChatSession(User user, String username, String sessionName) {
+        Optional<ChatSession> existingSession = chatSessionService.getChatSessionsByUserUsername(username)
+                .stream()
+                .findFirst();
+
+        return existingSession.orElseGet(() -> {
+            ChatSession newSession = new ChatSession();
+            newSession.setUser(user);
+            newSession.setCreatedAt(LocalDateTime.now());
+            newSession.setName(sessionName != null ? sessionName : "New Session");
+            return chatSessionService.createChatSession(newSession, username);
+        });
+    }
+}
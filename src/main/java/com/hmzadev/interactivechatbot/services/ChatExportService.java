@@ -0,0 +1,128 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk export of a user's chat history as NDJSON: a header line, then each session followed by
+ * its messages, one JSON object per line. Rows go from a single JDBC cursor straight to the
+ * output, so memory stays flat whatever the history size, and bot queries are never re-run.
+ */
+@Service
+public class ChatExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatExportService.class);
+
+    private static final String EXPORT_SQL =
+            "SELECT s.id, s.name, s.created_at, m.id, COALESCE(p.content, m.content), m.sender, m.timestamp " +
+            "FROM chat_sessions s " +
+            "JOIN users u ON u.id = s.user_id " +
+            "LEFT JOIN messages m ON m.chat_session_id = s.id " +
+            "LEFT JOIN bot_payloads p ON p.hash = m.payload_hash " +
+            "WHERE u.username = ? " +
+            "ORDER BY s.id, m.timestamp, m.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chat.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private JdbcTemplate exportJdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        exportJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        exportJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void export(String username, OutputStream outputStream, boolean gzip) throws IOException {
+        long start = System.nanoTime();
+        long[] counts = {0, 0};  // sessions, messages
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream;
+        // Closing the generator also finishes the gzip trailer
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(target)) {
+            // Objects are separated by the newline written after each one, not by Jackson
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+
+            generator.writeStartObject();
+            generator.writeStringField("type", "export");
+            generator.writeStringField("username", username);
+            generator.writeStringField("exportedAt", LocalDateTime.now().toString());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+
+            long[] currentSession = {-1};
+            exportJdbcTemplate.query(EXPORT_SQL, rs -> {
+                try {
+                    long sessionId = rs.getLong(1);
+                    if (sessionId != currentSession[0]) {
+                        currentSession[0] = sessionId;
+                        counts[0]++;
+                        generator.writeStartObject();
+                        generator.writeStringField("type", "session");
+                        generator.writeNumberField("id", sessionId);
+                        generator.writeStringField("name", rs.getString(2));
+                        writeTimestamp(generator, "createdAt", rs.getTimestamp(3));
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                    }
+                    long messageId = rs.getLong(4);
+                    if (rs.wasNull()) {
+                        return;  // Session without messages
+                    }
+                    counts[1]++;
+                    generator.writeStartObject();
+                    generator.writeStringField("type", "message");
+                    generator.writeNumberField("sessionId", sessionId);
+                    generator.writeNumberField("id", messageId);
+                    generator.writeStringField("sender", rs.getString(6));
+                    writeTimestamp(generator, "timestamp", rs.getTimestamp(7));
+                    generator.writeStringField("content", rs.getString(5));
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, username);
+        } catch (UncheckedIOException e) {
+            // The client went away mid-export; the statement has already been closed
+            throw e.getCause();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        meterRegistry.timer("chat.export.duration").record(elapsed, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("chat.export.messages").increment(counts[1]);
+        logger.info("Exported {} sessions and {} messages for '{}' in {} ms",
+                counts[0], counts[1], username, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, String field, Timestamp timestamp) throws IOException {
+        if (timestamp != null) {
+            generator.writeStringField(field, timestamp.toLocalDateTime().toString());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.hmzadev.interactivechatbot.services;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for the ask and history pipelines. They are enabled by default and
+ * carry no stack traces, so a disabled or uncommitted event costs a couple of field writes; start
+ * a recording on a running pod with "jcmd &lt;pid&gt; JFR.start" and they show up under
+ * "Chatbot" next to the GC and lock events. Callers follow the usual begin/end/shouldCommit pattern.
+ */
+public final class ChatFlightEvents {
+
+    private ChatFlightEvents() {
+    }
+
+    @Name("com.hmzadev.chat.RasaCall")
+    @Label("Rasa Call")
+    @Category({"Chatbot", "Rasa"})
+    @Description("One request to the Rasa REST webhook")
+    @StackTrace(false)
+    public static class RasaCall extends Event {
+        @Label("Question Length")
+        @DataAmount(DataAmount.BYTES)
+        public int questionLength;
+
+        @Label("Response Length")
+        @DataAmount(DataAmount.BYTES)
+        public int responseLength;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("com.hmzadev.chat.SqlExecution")
+    @Label("Bot SQL Execution")
+    @Category({"Chatbot", "SQL"})
+    @Description("Execution and fetch of one bot-generated query")
+    @StackTrace(false)
+    public static class SqlExecution extends Event {
+        @Label("Fingerprint")
+        public String fingerprint;
+
+        @Label("Rows")
+        public int rows;
+
+        @Label("Fetch Time")
+        @Description("Time from sending the statement until the last row was read")
+        @Timespan(Timespan.NANOSECONDS)
+        public long fetchTime;
+
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    @Name("com.hmzadev.chat.MessageFlush")
+    @Label("Message Flush")
+    @Category({"Chatbot", "Persistence"})
+    @Description("A chat message written to the database")
+    @StackTrace(false)
+    public static class MessageFlush extends Event {
+        @Label("Chat Session Id")
+        public long chatSessionId;
+
+        @Label("Sender")
+        public String sender;
+
+        @Label("Content Length")
+        @DataAmount(DataAmount.BYTES)
+        public int contentLength;
+    }
+
+    @Name("com.hmzadev.chat.HistoryLoad")
+    @Label("History Load")
+    @Category({"Chatbot", "Persistence"})
+    @Description("Messages of one chat session read for the history view")
+    @StackTrace(false)
+    public static class HistoryLoad extends Event {
+        @Label("Chat Session Id")
+        public long chatSessionId;
+
+        @Label("Messages")
+        public int messages;
+    }
+
+    @Name("com.hmzadev.chat.TokenVerification")
+    @Label("Token Verification")
+    @Category({"Chatbot", "Security"})
+    @Description("JWT parsing, signature check and user lookup for one request")
+    @StackTrace(false)
+    public static class TokenVerification extends Event {
+        @Label("Verify Time")
+        @Description("Time spent parsing and validating the token, without the user lookup")
+        @Timespan(Timespan.NANOSECONDS)
+        public long verifyTime;
+
+        @Label("Valid")
+        public boolean valid;
+    }
+}
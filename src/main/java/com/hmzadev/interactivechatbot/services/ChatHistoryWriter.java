@@ -0,0 +1,84 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.hmzadev.interactivechatbot.dao.SenderType;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Writes a session's history as {"status":"success","messages":[...]} one message at a time.
+ * Messages must arrive ordered by timestamp: a date header is written whenever the date changes,
+ * so nothing but the current message is held in memory.
+ * <p>
+ * A replayed result served from QueryMaterializationService carries resultAsOf, the time it was
+ * computed, like the X-Result-As-Of header of /ask. One cut at the spill threshold carries
+ * resultTruncated and resultTotalRows.
+ */
+public class ChatHistoryWriter {
+
+    public record DateHeader(String date) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record HistoryMessage(String content, String sender, String timestamp, Object queryResult,
+                                 String resultAsOf, Boolean resultTruncated, Long resultTotalRows) {
+    }
+
+    private final JsonGenerator generator;
+    private final Function<String, String> sqlExtractor;
+    private final Function<String, List<Map<String, Object>>> queryExecutor;
+    private LocalDate currentDate;
+
+    public ChatHistoryWriter(JsonGenerator generator,
+                             Function<String, String> sqlExtractor,
+                             Function<String, List<Map<String, Object>>> queryExecutor) {
+        this.generator = generator;
+        this.sqlExtractor = sqlExtractor;
+        this.queryExecutor = queryExecutor;
+    }
+
+    public void writeStart() throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("status", "success");
+        generator.writeArrayFieldStart("messages");
+    }
+
+    public void write(String content, SenderType sender, LocalDateTime timestamp) throws IOException {
+        LocalDate date = timestamp.toLocalDate();
+        if (!date.equals(currentDate)) {
+            currentDate = date;
+            generator.writeObject(new DateHeader(date.toString()));
+        }
+
+        // If it's a bot message, attempt to extract and re-run its query
+        Object queryResult = null;
+        String resultAsOf = null;
+        Long resultTotalRows = null;
+        if (sender == SenderType.BOT) {
+            String sqlQuery = sqlExtractor.apply(content);
+            if (sqlQuery != null && !sqlQuery.isEmpty()) {
+                List<Map<String, Object>> rows = queryExecutor.apply(sqlQuery);
+                queryResult = rows != null ? rows : "No data returned from query";
+                if (rows instanceof QueryMaterializationService.MaterializedRows materialized) {
+                    resultAsOf = materialized.refreshedAt().toString();
+                } else if (rows instanceof QueryResultSpillService.TruncatedRows truncated) {
+                    resultTotalRows = truncated.totalRows();
+                }
+            }
+        }
+        generator.writeObject(new HistoryMessage(content, sender.name(), timestamp.toString(), queryResult, resultAsOf,
+                resultTotalRows != null ? Boolean.TRUE : null, resultTotalRows));
+    }
+
+    public void writeEnd() throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.flush();
+    }
+}
@@ -0,0 +1,86 @@
+package com.hmzadev.interactivechatbot.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instruments for the chat request path. Every stage is a "chat.stage" timer tagged
+ * with the stage name; percentiles and histogram buckets are configured under
+ * management.metrics.distribution in application.properties.
+ */
+@Component
+public class ChatMetrics {
+
+    public static final String JWT_VERIFY = "jwt-verify";
+    public static final String USER_LOOKUP = "user-lookup";
+    public static final String SESSION_LOOKUP = "session-lookup";
+    public static final String SAVE_MESSAGE = "save-message";
+    public static final String RASA = "rasa";
+    public static final String EXTRACT = "extract";
+    public static final String SQL = "sql";
+    public static final String SERIALIZATION = "serialization";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Counter rasaFailures;
+    private final Counter emptyExtractions;
+    private final Counter rejectedQueries;
+    private final Counter failedQueries;
+    private final DistributionSummary sqlRows;
+
+    public ChatMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.rasaFailures = meterRegistry.counter("chat.rasa.failures");
+        this.emptyExtractions = meterRegistry.counter("chat.sql.extraction.empty");
+        this.rejectedQueries = meterRegistry.counter("chat.sql.rejected");
+        this.failedQueries = meterRegistry.counter("chat.sql.failures");
+        this.sqlRows = DistributionSummary.builder("chat.sql.rows")
+                .description("Rows returned by bot-generated queries")
+                .register(meterRegistry);
+    }
+
+    public <T> T time(String stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    public void record(String stage, long nanos) {
+        stageTimers.computeIfAbsent(stage, name -> Timer.builder("chat.stage")
+                        .description("Duration of one stage of a chat request")
+                        .tag("stage", name)
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rasaFailure() {
+        rasaFailures.increment();
+    }
+
+    public void emptyExtraction() {
+        emptyExtractions.increment();
+    }
+
+    public void rejectedQuery() {
+        rejectedQueries.increment();
+    }
+
+    public void failedQuery() {
+        failedQueries.increment();
+    }
+
+    public void rowsReturned(int rows) {
+        sqlRows.record(rows);
+    }
+}
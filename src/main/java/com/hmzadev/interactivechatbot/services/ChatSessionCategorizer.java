@@ -0,0 +1,40 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.dao.ChatSession;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Buckets chat sessions into the date ranges shown in the sidebar (Today, Yesterday, This Week, ...)
+public final class ChatSessionCategorizer {
+
+    private ChatSessionCategorizer() {
+    }
+
+    public static Map<String, List<ChatSession>> categorize(List<ChatSession> chatSessions, LocalDate today) {
+        LocalDate yesterday = today.minusDays(1);
+        LocalDate startOfWeek = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate thirtyDaysAgo = today.minusDays(30);
+
+        return chatSessions.stream()
+                .collect(Collectors.groupingBy(chatSession -> {
+                    LocalDate createdAt = chatSession.getCreatedAt().toLocalDate();
+
+                    if (createdAt.equals(today)) {
+                        return "Today";
+                    } else if (createdAt.equals(yesterday)) {
+                        return "Yesterday";
+                    } else if (!createdAt.isBefore(startOfWeek)) {
+                        return "This Week";
+                    } else if (!createdAt.isBefore(thirtyDaysAgo)) {
+                        return "Last 30 Days";
+                    } else {
+                        return "Older";
+                    }
+                }));
+    }
+}
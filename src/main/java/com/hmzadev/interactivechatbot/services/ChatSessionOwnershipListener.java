@@ -0,0 +1,23 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.dao.ChatSession;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Drops cached ownership when a session is deleted or changes hands (any update, to be safe)
+@Component
+public class ChatSessionOwnershipListener {
+
+    @Autowired
+    private SessionOwnershipCache sessionOwnershipCache;
+
+    @PostUpdate
+    @PostRemove
+    public void invalidate(ChatSession chatSession) {
+        if (chatSession.getId() != null) {
+            sessionOwnershipCache.invalidate(chatSession.getId());
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.hmzadev.interactivechatbot.dao.User;
 import com.hmzadev.interactivechatbot.repositories.ChatSessionRepository;
 import com.hmzadev.interactivechatbot.repositories.MessageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -14,6 +16,9 @@ import java.util.Optional;
 
 @Service
 public class ChatSessionService {
+
+    public enum Access { GRANTED, NOT_FOUND, FORBIDDEN }
+
     @Autowired
     private ChatSessionRepository chatSessionRepository;
 
@@ -23,6 +28,18 @@ public class ChatSessionService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ChatMetrics chatMetrics;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private HotSessionCache hotSessionCache;
+
+    @Autowired
+    private SessionOwnershipCache sessionOwnershipCache;
+
     public List<ChatSession> getChatSessionsByUserEmail(String email) {
         return chatSessionRepository.findByUserEmail(email);
     }
@@ -32,7 +49,46 @@ public class ChatSessionService {
     }
 
     public Optional<ChatSession> getChatSessionById(Long id) {
-        return chatSessionRepository.findById(id);
+        return chatMetrics.time(ChatMetrics.SESSION_LOOKUP, () -> chatSessionRepository.findById(id));
+    }
+
+    // Owner of the session from the ownership cache, falling back to a single-column query
+    public Optional<Long> findOwnerId(Long sessionId) {
+        long cached = sessionOwnershipCache.get(sessionId);
+        if (cached != SessionOwnershipCache.ABSENT) {
+            return Optional.of(cached);
+        }
+        Optional<Long> ownerId = chatMetrics.time(ChatMetrics.SESSION_LOOKUP,
+                () -> chatSessionRepository.findOwnerIdById(sessionId));
+        ownerId.ifPresent(id -> sessionOwnershipCache.put(sessionId, id));
+        return ownerId;
+    }
+
+    public Access checkAccess(Long sessionId, Long userId) {
+        Optional<Long> ownerId = findOwnerId(sessionId);
+        if (ownerId.isEmpty()) {
+            return Access.NOT_FOUND;
+        }
+        return ownerId.get().equals(userId) ? Access.GRANTED : Access.FORBIDDEN;
+    }
+
+    public Access checkAccess(Long sessionId, String username) {
+        return checkAccess(sessionId, currentUserId(username));
+    }
+
+    // Unloaded proxy for attaching messages to a session whose access was already checked
+    public ChatSession getReference(Long sessionId) {
+        return chatSessionRepository.getReferenceById(sessionId);
+    }
+
+    // The JWT filter already loaded the caller; only look the user up when called outside a request
+    public Long currentUserId(String username) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user
+                && user.getUsername().equals(username)) {
+            return user.getId();
+        }
+        return userService.findByUsername(username).map(User::getId).orElse(null);
     }
 
     public List<Message> getMessagesByChatSession(ChatSession chatSession) {
@@ -43,7 +99,9 @@ public class ChatSessionService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found with username: " + username));
 
         chatSession.setUser(user);
-        return chatSessionRepository.save(chatSession);
+        ChatSession saved = chatSessionRepository.save(chatSession);
+        resourceVersionService.sessionListChanged(username);
+        return saved;
     }
     public List<ChatSession> searchChatSessionsByQuery(String username, String query) {
         // Here you can extend this to search by more fields like content or date
@@ -57,7 +115,10 @@ public class ChatSessionService {
         message.setChatSession(chatSession);
         message.setContent(content);
         message.setTimestamp(LocalDateTime.now());
-        return messageRepository.save(message);
+        Message saved = messageRepository.save(message);
+        resourceVersionService.sessionChanged(chatSession.getId());
+        hotSessionCache.append(saved);
+        return saved;
     }
 
     // Method to get the next session number by checking the highest session number used
@@ -82,6 +143,8 @@ public class ChatSessionService {
         newSession.setCreatedAt(LocalDateTime.now());  // Set creation date if necessary
 
         // Save the new session to the repository
-        return chatSessionRepository.save(newSession);
+        ChatSession saved = chatSessionRepository.save(newSession);
+        resourceVersionService.sessionListChanged(user.getUsername());
+        return saved;
     }
 }
\ No newline at end of file
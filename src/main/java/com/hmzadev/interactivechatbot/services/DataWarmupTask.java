@@ -0,0 +1,60 @@
+package com.hmzadev.interactivechatbot.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional warmup of the "data" table the bot queries run against. Replaces the old boot-time
+ * full-table dump: it reads a bounded number of rows, off the startup thread, after the
+ * application is ready.
+ */
+@Component
+public class DataWarmupTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataWarmupTask.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("chatExecutor")
+    private AsyncTaskExecutor chatExecutor;
+
+    @Value("${chat.startup.data-warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.startup.data-warmup.max-rows:100}")
+    private int maxRows;
+
+    @Value("${chat.warmup.enabled:false}")
+    private boolean warmupPhaseEnabled;
+
+    // When the warmup phase is on, WarmupService runs this task before readiness instead
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled && !warmupPhaseEnabled) {
+            chatExecutor.execute(this::run);
+        }
+    }
+
+    public void run() {
+        long start = System.nanoTime();
+        try {
+            JdbcTemplate bounded = new JdbcTemplate(jdbcTemplate.getDataSource());
+            bounded.setMaxRows(maxRows);
+            bounded.setFetchSize(maxRows);
+            int rows = bounded.queryForList("SELECT * FROM data").size();
+            logger.info("Data warmup read {} rows in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Data warmup failed: {}", e.getMessage());
+        }
+    }
+}
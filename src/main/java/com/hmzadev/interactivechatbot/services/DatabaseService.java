@@ -1,9 +1,14 @@
 package com.hmzadev.interactivechatbot.services;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.Map;
 import java.util.List;
 
@@ -12,11 +17,108 @@ public class DatabaseService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private ChatMetrics chatMetrics;
+
+    @Autowired
+    private QueryStatisticsService queryStatisticsService;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Autowired
+    private QueryMaterializationService queryMaterializationService;
+
+    @Autowired
+    private QueryResultSpillService queryResultSpillService;
+
+    @Value("${chat.ask.sql-timeout-ms:15000}")
+    private long botQueryTimeoutMs;
+
+    @Value("${chat.sql.fetch-size:1000}")
+    private int botFetchSize;
+
+    // Same data source, but the driver cancels bot queries that outlive the SQL stage timeout
+    private JdbcTemplate botJdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        botJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        botJdbcTemplate.setQueryTimeout((int) Math.max(1, (botQueryTimeoutMs + 999) / 1000));
+        // Rows are streamed to the spill service, so the driver must not buffer the whole result either
+        botJdbcTemplate.setFetchSize(botFetchSize);
+    }
+
     public List<Map<String, Object>> executeQuery(String query) {
-        if (query.trim().toUpperCase().startsWith("SELECT")) {
+        if (BotQueryPolicy.isRead(query)) {
             return jdbcTemplate.queryForList(query);
         } else {
-            throw new IllegalArgumentException("Query must be a SELECT statement");
+            throw new IllegalArgumentException("Query must be a SELECT or WITH statement");
+        }
+    }
+
+    // Re-runs a stored bot query (history replay), which has no question attached
+    public List<Map<String, Object>> executeBotQuery(String sqlQuery) {
+        return executeBotQuery(sqlQuery, null);
+    }
+
+    // Runs a query generated by the bot; rejected statements and failures are reported as null
+    public List<Map<String, Object>> executeBotQuery(String sqlQuery, String question) {
+        if (!BotQueryPolicy.isRead(sqlQuery)) {
+            chatMetrics.rejectedQuery();
+            return null;
+        }
+        // Hot queries are answered from memory; the result carries the time it was computed
+        QueryMaterializationService.MaterializedRows materialized = queryMaterializationService.lookup(sqlQuery);
+        if (materialized != null) {
+            return materialized;
+        }
+        String fingerprint = SqlFingerprint.of(sqlQuery);
+        // Statement span; the fingerprint is high-cardinality, so it goes on the span but not on metrics
+        Observation observation = Observation.createNotStarted("chat.sql.query", observationRegistry)
+                .contextualName("sql bot-query")
+                .lowCardinalityKeyValue("db.operation", BotQueryPolicy.operation(sqlQuery))
+                .highCardinalityKeyValue("db.fingerprint", fingerprint)
+                .start();
+        ChatFlightEvents.SqlExecution event = new ChatFlightEvents.SqlExecution();
+        event.begin();
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        int rowCount = 0;
+        boolean failed = false;
+        // Oversized results of a question are spilled to disk; replays just keep the first rows
+        QueryResultSpillService.SpillingCollector collector = queryResultSpillService.collector(question != null);
+        try (Observation.Scope scope = observation.openScope()) {
+            // Execute the query and return the result as a list of key-value pairs (column name -> value)
+            botJdbcTemplate.query(sqlQuery, collector);
+            List<Map<String, Object>> rows = collector.result();
+            rowCount = (int) Math.min(collector.rowCount(), Integer.MAX_VALUE);
+            chatMetrics.rowsReturned(rowCount);
+            if (collector.complete()) {
+                queryMaterializationService.offer(fingerprint, sqlQuery, rows, startedAt);
+            }
+            return rows;
+        } catch (Exception e) {
+            failed = true;
+            collector.abort();
+            observation.error(e);
+            chatMetrics.failedQuery();
+            e.printStackTrace(); // Log the exception for debugging
+            return null;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            event.end();
+            if (event.shouldCommit()) {
+                event.fingerprint = fingerprint;
+                event.rows = rowCount;
+                event.fetchTime = elapsed;
+                event.failed = failed;
+                event.commit();
+            }
+            chatMetrics.record(ChatMetrics.SQL, elapsed);
+            queryStatisticsService.record(fingerprint, sqlQuery, question, elapsed, rowCount, failed);
+            observation.highCardinalityKeyValue("db.rows", String.valueOf(rowCount));
+            observation.stop();
         }
     }
 
@@ -0,0 +1,251 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.dao.Message;
+import com.hmzadev.interactivechatbot.dao.SenderType;
+import com.hmzadev.interactivechatbot.repositories.MessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The most recent messages of active chat sessions, one fixed-size ring per session. A ring is
+ * filled on the first read of a session and appended to by MessageService.saveMessage, so a user
+ * always reads their own writes. When a ring still holds the whole session it can also serve the
+ * full history.
+ * <p>
+ * A fill only lands if the session's write version (ResourceVersionService) did not move while
+ * the rows were being read; fills and appends both go through the map's per-key lock, so a
+ * message can never be missed between the database read and the ring becoming visible. The
+ * version is bumped after a message commits, so a fill can also read a message whose append is
+ * still to come; rings keep message ids and ignore an append of one they already hold.
+ */
+@Service
+public class HotSessionCache {
+
+    public record CachedMessage(String content, SenderType sender, LocalDateTime timestamp) {
+    }
+
+    private static final SenderType[] SENDERS = SenderType.values();
+
+    private final MessageRepository messageRepository;
+    private final ResourceVersionService resourceVersionService;
+    private final ConcurrentHashMap<Long, SessionRing> rings = new ConcurrentHashMap<>();
+    private final int messagesPerSession;
+    private final int maxSessions;
+    private final long idleNanos;
+    private final Counter hits;
+    private final Counter misses;
+
+    public HotSessionCache(MessageRepository messageRepository,
+                           ResourceVersionService resourceVersionService,
+                           MeterRegistry meterRegistry,
+                           @Value("${chat.hot-cache.messages-per-session:50}") int messagesPerSession,
+                           @Value("${chat.hot-cache.max-sessions:1000}") int maxSessions,
+                           @Value("${chat.hot-cache.idle-eviction-minutes:15}") long idleEvictionMinutes) {
+        this.messageRepository = messageRepository;
+        this.resourceVersionService = resourceVersionService;
+        this.messagesPerSession = messagesPerSession;
+        this.maxSessions = maxSessions;
+        this.idleNanos = TimeUnit.MINUTES.toNanos(idleEvictionMinutes);
+        this.hits = meterRegistry.counter("chat.hot-cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("chat.hot-cache.requests", "result", "miss");
+        meterRegistry.gauge("chat.hot-cache.sessions", rings, Map::size);
+        meterRegistry.gauge("chat.hot-cache.hit-ratio", this, cache -> {
+            double total = cache.hits.count() + cache.misses.count();
+            return total == 0 ? 0.0 : cache.hits.count() / total;
+        });
+    }
+
+    public int getMessagesPerSession() {
+        return messagesPerSession;
+    }
+
+    // Latest messages of a session, oldest first; loads the ring from the database on a miss
+    public List<CachedMessage> latest(Long sessionId, int limit) {
+        SessionRing ring = rings.get(sessionId);
+        if (ring != null) {
+            hits.increment();
+            return ring.latest(limit);
+        }
+        misses.increment();
+
+        long version = resourceVersionService.sessionVersion(sessionId);
+        // One row more than fits tells us whether the ring would hold the whole session
+        List<Message> newestFirst = messageRepository.findByChatSessionIdOrderByTimestampDescIdDesc(
+                sessionId, PageRequest.of(0, messagesPerSession + 1));
+        SessionRing loaded = new SessionRing(messagesPerSession);
+        for (int i = Math.min(newestFirst.size(), messagesPerSession) - 1; i >= 0; i--) {
+            Message message = newestFirst.get(i);
+            loaded.append(message.getId(), message.getContent(), message.getSender(), message.getTimestamp());
+        }
+        loaded.complete = newestFirst.size() <= messagesPerSession;
+        offer(sessionId, loaded, version);
+        return loaded.latest(limit);
+    }
+
+    // True when a cached ring already shows the session has messages; no database access, no metrics
+    public boolean knownNonEmpty(Long sessionId) {
+        SessionRing ring = rings.get(sessionId);
+        return ring != null && ring.size() > 0;
+    }
+
+    // The whole session if its ring holds all of it, otherwise null (the caller reads the database)
+    public List<CachedMessage> completeSession(Long sessionId) {
+        SessionRing ring = rings.get(sessionId);
+        if (ring != null && ring.complete) {
+            hits.increment();
+            return ring.latest(messagesPerSession);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Starts a ring that a full history read is building on the side. Returns null once the cache
+     * is already tracking the session.
+     */
+    public SessionRing newRingFor(Long sessionId) {
+        return rings.containsKey(sessionId) ? null : new SessionRing(messagesPerSession);
+    }
+
+    // Publishes a ring read from the database unless the session was written to since versionBefore
+    public void offer(Long sessionId, SessionRing ring, long versionBefore) {
+        rings.compute(sessionId, (id, existing) -> {
+            if (existing != null) {
+                return existing;
+            }
+            return resourceVersionService.sessionVersion(id) == versionBefore ? ring : null;
+        });
+        if (rings.size() > maxSessions) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    // Called after a message is stored and the session version bumped; only sessions already cached
+    public void append(Message message) {
+        if (message.getId() != null && message.getChatSession() != null && message.getChatSession().getId() != null
+                && message.getSender() != null) {
+            append(message.getChatSession().getId(), message.getId(), message.getContent(), message.getSender(),
+                    message.getTimestamp());
+        }
+    }
+
+    public void append(Long sessionId, long messageId, String content, SenderType sender, LocalDateTime timestamp) {
+        rings.computeIfPresent(sessionId, (id, ring) -> {
+            ring.append(messageId, content, sender, timestamp);
+            return ring;
+        });
+    }
+
+    // Another instance wrote to the session; the next read refills the ring from the database
+    public void invalidate(Long sessionId) {
+        rings.remove(sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.hot-cache.sweep-interval-ms:60000}")
+    public void evictIdleSessions() {
+        long now = System.nanoTime();
+        rings.entrySet().removeIf(entry -> now - entry.getValue().lastAccessNanos > idleNanos);
+    }
+
+    private void evictLeastRecentlyUsed() {
+        while (rings.size() > maxSessions) {
+            Long oldest = null;
+            long oldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<Long, SessionRing> entry : rings.entrySet()) {
+                if (entry.getValue().lastAccessNanos - oldestAccess < 0) {
+                    oldestAccess = entry.getValue().lastAccessNanos;
+                    oldest = entry.getKey();
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            rings.remove(oldest);
+        }
+    }
+
+    /**
+     * Fixed-capacity ring stored column-wise (message id, content, sender ordinal, epoch nanos) to
+     * keep the per-message overhead to the content string itself.
+     */
+    public static final class SessionRing {
+        private final long[] ids;
+        private final String[] contents;
+        private final byte[] senders;
+        private final long[] timestamps;
+        private int next;
+        private int size;
+        private volatile boolean complete = true;
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        SessionRing(int capacity) {
+            this.ids = new long[capacity];
+            this.contents = new String[capacity];
+            this.senders = new byte[capacity];
+            this.timestamps = new long[capacity];
+        }
+
+        // Appending a message the ring already holds (read by a fill that raced its save) is a no-op
+        public synchronized void append(long id, String content, SenderType sender, LocalDateTime timestamp) {
+            if (contains(id)) {
+                return;
+            }
+            if (size == contents.length) {
+                // The oldest message falls out, so the ring no longer holds the whole session
+                complete = false;
+            } else {
+                size++;
+            }
+            ids[next] = id;
+            contents[next] = content;
+            senders[next] = (byte) sender.ordinal();
+            timestamps[next] = timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+            next = (next + 1) % contents.length;
+            lastAccessNanos = System.nanoTime();
+        }
+
+        private boolean contains(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[Math.floorMod(next - 1 - i, ids.length)] == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized List<CachedMessage> latest(int limit) {
+            lastAccessNanos = System.nanoTime();
+            int count = Math.min(limit, size);
+            if (count <= 0) {
+                return Collections.emptyList();
+            }
+            List<CachedMessage> messages = new ArrayList<>(count);
+            int start = Math.floorMod(next - count, contents.length);
+            for (int i = 0; i < count; i++) {
+                int index = (start + i) % contents.length;
+                long nanos = timestamps[index];
+                messages.add(new CachedMessage(contents[index], SENDERS[senders[index]],
+                        LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC)));
+            }
+            return messages;
+        }
+    }
+}
@@ -1,21 +1,163 @@
 package com.hmzadev.interactivechatbot.services;
 
 import com.hmzadev.interactivechatbot.dao.Message;
+import com.hmzadev.interactivechatbot.dao.SenderType;
 import com.hmzadev.interactivechatbot.repositories.MessageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 @Service
 public class MessageService {
     @Autowired
     private MessageRepository messageRepository;
 
+    @Autowired
+    private ChatMetrics chatMetrics;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private HotSessionCache hotSessionCache;
+
+    @Autowired
+    private BotPayloadService botPayloadService;
+
+    // Rows read per history query; the connection goes back to the pool between chunks
+    @Value("${chat.history.chunk-size:200}")
+    private int historyChunkSize;
+
+    private static final String HISTORY_COLUMNS =
+            "SELECT m.id, COALESCE(p.content, m.content), m.sender, m.timestamp FROM messages m " +
+            "LEFT JOIN bot_payloads p ON p.hash = m.payload_hash WHERE m.chat_session_id = ? ";
+    private static final String HISTORY_ORDER = "ORDER BY m.timestamp, m.id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+    private static final String HISTORY_FIRST_CHUNK = HISTORY_COLUMNS + HISTORY_ORDER;
+    // Keyset continuation after the last (timestamp, id) of the previous chunk
+    private static final String HISTORY_NEXT_CHUNK = HISTORY_COLUMNS +
+            "AND (m.timestamp > ? OR (m.timestamp = ? AND m.id > ?)) " + HISTORY_ORDER;
+
+    private record HistoryRow(long id, String content, SenderType sender, LocalDateTime timestamp) {
+    }
+
+    @FunctionalInterface
+    public interface HistoryRowHandler {
+        void handle(String content, SenderType sender, LocalDateTime timestamp) throws IOException;
+    }
+
     public Message saveMessage(Message message) {
-        return messageRepository.save(message);
+        ChatFlightEvents.MessageFlush event = new ChatFlightEvents.MessageFlush();
+        event.begin();
+        if (message.getSender() == SenderType.BOT) {
+            botPayloadService.externalize(message);
+        }
+        Message saved = chatMetrics.time(ChatMetrics.SAVE_MESSAGE, () -> messageRepository.save(message));
+        // Bumped only after the write, so a tag never advertises content that isn't stored yet
+        if (message.getChatSession() != null) {
+            resourceVersionService.sessionChanged(message.getChatSession().getId());
+            // After the bump, so a concurrent cache fill either sees this write or is discarded
+            hotSessionCache.append(saved);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.chatSessionId = message.getChatSession() != null && message.getChatSession().getId() != null
+                    ? message.getChatSession().getId() : -1;
+            event.sender = message.getSender() != null ? message.getSender().name() : null;
+            event.contentLength = message.getContent() != null ? message.getContent().length() : 0;
+            event.commit();
+        }
+        return saved;
     }
 
     public List<Message> getMessagesBySessionId(Long sessionId) {
-        return messageRepository.findByChatSessionId(sessionId);
+        ChatFlightEvents.HistoryLoad event = new ChatFlightEvents.HistoryLoad();
+        event.begin();
+        List<Message> messages = messageRepository.findByChatSessionId(sessionId);
+        event.end();
+        if (event.shouldCommit()) {
+            event.chatSessionId = sessionId;
+            event.messages = messages.size();
+            event.commit();
+        }
+        return messages;
+    }
+
+    public boolean hasMessages(Long sessionId) {
+        return hotSessionCache.knownNonEmpty(sessionId) || messageRepository.existsByChatSessionId(sessionId);
+    }
+
+    // Most recent messages of a session, oldest first, from the hot-session cache when possible
+    public List<HotSessionCache.CachedMessage> getLatestMessages(Long sessionId, int limit) {
+        return hotSessionCache.latest(sessionId, Math.min(limit, hotSessionCache.getMessagesPerSession()));
+    }
+
+    /**
+     * Streams a session's messages in timestamp order. Served from the hot-session cache when it
+     * holds the whole session; otherwise read in keyset chunks of chunk-size rows, without
+     * entities, while the newest messages are collected to warm the cache.
+     * <p>
+     * No connection is held while the handler runs. The handler may re-run bot queries (which need
+     * a connection of their own) and write to a slow client; holding the history connection across
+     * that could exhaust the pool with concurrent streams each waiting for a second connection.
+     */
+    public void streamMessagesBySessionId(Long sessionId, HistoryRowHandler handler) throws IOException {
+        List<HotSessionCache.CachedMessage> cached = hotSessionCache.completeSession(sessionId);
+        if (cached != null) {
+            for (HotSessionCache.CachedMessage message : cached) {
+                handler.handle(message.content(), message.sender(), message.timestamp());
+            }
+            return;
+        }
+
+        ChatFlightEvents.HistoryLoad event = new ChatFlightEvents.HistoryLoad();
+        event.begin();
+        int count = 0;
+        long versionBefore = resourceVersionService.sessionVersion(sessionId);
+        HotSessionCache.SessionRing ring = hotSessionCache.newRingFor(sessionId);
+        try {
+            List<HistoryRow> chunk = jdbcTemplate.query(HISTORY_FIRST_CHUNK, MessageService::historyRow,
+                    sessionId, historyChunkSize);
+            while (true) {
+                for (HistoryRow row : chunk) {
+                    if (ring != null) {
+                        ring.append(row.id(), row.content(), row.sender(), row.timestamp());
+                    }
+                    handler.handle(row.content(), row.sender(), row.timestamp());
+                    count++;
+                }
+                if (chunk.size() < historyChunkSize) {
+                    break;
+                }
+                HistoryRow last = chunk.get(chunk.size() - 1);
+                Timestamp lastTimestamp = Timestamp.valueOf(last.timestamp());
+                chunk = jdbcTemplate.query(HISTORY_NEXT_CHUNK, MessageService::historyRow,
+                        sessionId, lastTimestamp, lastTimestamp, last.id(), historyChunkSize);
+            }
+            if (ring != null) {
+                hotSessionCache.offer(sessionId, ring, versionBefore);
+            }
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.chatSessionId = sessionId;
+                event.messages = count;
+                event.commit();
+            }
+        }
+    }
+
+    private static HistoryRow historyRow(ResultSet rs, int rowNum) throws SQLException {
+        return new HistoryRow(rs.getLong(1), rs.getString(2), SenderType.valueOf(rs.getString(3)),
+                rs.getTimestamp(4).toLocalDateTime());
     }
 }
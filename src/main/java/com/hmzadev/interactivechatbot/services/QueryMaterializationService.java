@@ -0,0 +1,267 @@
+package com.hmzadev.interactivechatbot.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps in-memory results for the bot queries that dominate the SQL load.
+ * <p>
+ * Every detection interval the per-fingerprint totals from QueryStatisticsService are diffed
+ * against the previous run; fingerprints with enough calls and database time in between become
+ * hot. The next live result of a hot fingerprint (exact SQL text, so literal values still
+ * matter) is kept and re-run on the refresh interval, or as soon as the optional change-check
+ * query returns something new. Entries nobody reads for idle-minutes are dropped, and results
+ * are never served older than max-staleness.
+ */
+@Service
+public class QueryMaterializationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryMaterializationService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QueryStatisticsService queryStatisticsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chat.materialization.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.materialization.min-calls:20}")
+    private long minCalls;
+
+    @Value("${chat.materialization.min-total-ms:1000}")
+    private long minTotalMs;
+
+    @Value("${chat.materialization.max-hot-fingerprints:20}")
+    private int maxHotFingerprints;
+
+    @Value("${chat.materialization.max-entries:200}")
+    private int maxEntries;
+
+    @Value("${chat.materialization.max-rows:10000}")
+    private int maxRows;
+
+    @Value("${chat.materialization.max-staleness-seconds:300}")
+    private long maxStalenessSeconds;
+
+    @Value("${chat.materialization.idle-minutes:15}")
+    private long idleMinutes;
+
+    // Optional cheap query over the source tables, e.g. SELECT COUNT(*), MAX(id) FROM data
+    @Value("${chat.materialization.change-check-sql:}")
+    private String changeCheckSql;
+
+    @Value("${chat.ask.sql-timeout-ms:15000}")
+    private long queryTimeoutMs;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile Set<String> hotFingerprints = Set.of();
+    private Map<String, QueryStatisticsService.Totals> previousTotals = Map.of();
+    private volatile List<Map<String, Object>> lastChangeCheck;
+
+    private JdbcTemplate refreshJdbcTemplate;
+    private Counter hits;
+
+    /**
+     * A materialized result, served in place of a live one. Read-only; refreshedAt is when the
+     * query that produced it started.
+     */
+    public static final class MaterializedRows extends AbstractList<Map<String, Object>> {
+        private final List<Map<String, Object>> rows;
+        private final Instant refreshedAt;
+
+        MaterializedRows(List<Map<String, Object>> rows, Instant refreshedAt) {
+            this.rows = List.copyOf(rows);
+            this.refreshedAt = refreshedAt;
+        }
+
+        public Instant refreshedAt() {
+            return refreshedAt;
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            return rows.get(index);
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private volatile MaterializedRows rows;
+        private volatile long lastHitNanos = System.nanoTime();
+        private final LongAdder hits = new LongAdder();
+
+        Entry(String fingerprint, MaterializedRows rows) {
+            this.fingerprint = fingerprint;
+            this.rows = rows;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        refreshJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        refreshJdbcTemplate.setQueryTimeout((int) Math.max(1, (queryTimeoutMs + 999) / 1000));
+        hits = meterRegistry.counter("chat.materialization.hits");
+        meterRegistry.gaugeMapSize("chat.materialization.entries", List.of(), entries);
+    }
+
+    // The materialized result for this exact query, or null when it must run live
+    public MaterializedRows lookup(String sqlQuery) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        Entry entry = entries.get(key(sqlQuery));
+        if (entry == null) {
+            return null;
+        }
+        MaterializedRows rows = entry.rows;
+        if (Duration.between(rows.refreshedAt(), Instant.now()).getSeconds() > maxStalenessSeconds) {
+            return null;  // Refreshes are failing; fall back to live queries until one succeeds
+        }
+        entry.lastHitNanos = System.nanoTime();
+        entry.hits.increment();
+        hits.increment();
+        return rows;
+    }
+
+    // Called with each successful live result; kept only when its fingerprint is hot
+    public void offer(String fingerprint, String sqlQuery, List<Map<String, Object>> rows, Instant startedAt) {
+        if (!enabled || !hotFingerprints.contains(fingerprint) || rows.size() > maxRows || entries.size() >= maxEntries) {
+            return;
+        }
+        entries.computeIfAbsent(key(sqlQuery), k -> {
+            logger.info("Materializing hot query [{}] ({} rows)", sqlQuery, rows.size());
+            return new Entry(fingerprint, new MaterializedRows(rows, startedAt));
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${chat.materialization.detect-interval-ms:30000}")
+    public void detectHotFingerprints() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, QueryStatisticsService.Totals> totals = queryStatisticsService.totals();
+        Map<String, QueryStatisticsService.Totals> previous = previousTotals;
+        previousTotals = totals;
+
+        long minTotalNanos = TimeUnit.MILLISECONDS.toNanos(minTotalMs);
+        Map<String, Long> busy = new HashMap<>();
+        totals.forEach((fingerprint, now) -> {
+            QueryStatisticsService.Totals before = previous.getOrDefault(fingerprint, QueryStatisticsService.Totals.ZERO);
+            // Totals go backwards after a statistics reset; treat that run as starting from zero
+            long calls = now.calls() >= before.calls() ? now.calls() - before.calls() : now.calls();
+            long nanos = now.totalNanos() >= before.totalNanos() ? now.totalNanos() - before.totalNanos() : now.totalNanos();
+            if (!QueryStatisticsService.OTHER.equals(fingerprint) && calls >= minCalls && nanos >= minTotalNanos) {
+                busy.put(fingerprint, nanos);
+            }
+        });
+
+        // Materialized fingerprints stop running live, so they stay hot for as long as they are read
+        Set<String> hot = busy.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(maxHotFingerprints)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(HashSet::new));
+        entries.values().forEach(entry -> hot.add(entry.fingerprint));
+        hotFingerprints = Set.copyOf(hot);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.materialization.refresh-interval-ms:60000}")
+    public void refresh() {
+        if (!enabled || entries.isEmpty()) {
+            return;
+        }
+        long idleNanos = TimeUnit.MINUTES.toNanos(idleMinutes);
+        entries.forEach((sql, entry) -> {
+            if (System.nanoTime() - entry.lastHitNanos > idleNanos) {
+                entries.remove(sql, entry);
+                logger.info("Dropped idle materialized query [{}]", sql);
+                return;
+            }
+            Instant startedAt = Instant.now();
+            try {
+                List<Map<String, Object>> rows = refreshJdbcTemplate.queryForList(sql);
+                if (rows.size() > maxRows) {
+                    entries.remove(sql, entry);
+                    return;
+                }
+                entry.rows = new MaterializedRows(rows, startedAt);
+            } catch (Exception e) {
+                // Keep serving the previous result until it exceeds max-staleness
+                logger.warn("Refresh of materialized query [{}] failed: {}", sql, e.getMessage());
+            }
+        });
+    }
+
+    // Change trigger: refreshes everything as soon as the source data is seen to move
+    @Scheduled(fixedDelayString = "${chat.materialization.change-check-ms:5000}")
+    public void checkForChanges() {
+        if (!enabled || changeCheckSql.isBlank() || entries.isEmpty()) {
+            return;
+        }
+        try {
+            List<Map<String, Object>> current = refreshJdbcTemplate.queryForList(changeCheckSql);
+            List<Map<String, Object>> previous = lastChangeCheck;
+            lastChangeCheck = current;
+            if (previous != null && !Objects.equals(previous, current)) {
+                refresh();
+            }
+        } catch (Exception e) {
+            logger.warn("Materialization change check failed: {}", e.getMessage());
+        }
+    }
+
+    public List<Map<String, Object>> describe() {
+        Instant now = Instant.now();
+        return entries.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().hits.sum()).reversed())
+                .map(e -> {
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    map.put("sql", e.getKey());
+                    map.put("fingerprint", e.getValue().fingerprint);
+                    map.put("rows", e.getValue().rows.size());
+                    map.put("refreshedAt", e.getValue().rows.refreshedAt().toString());
+                    map.put("ageMs", Duration.between(e.getValue().rows.refreshedAt(), now).toMillis());
+                    map.put("hits", e.getValue().hits.sum());
+                    return map;
+                })
+                .toList();
+    }
+
+    private static String key(String sqlQuery) {
+        return sqlQuery.trim();
+    }
+}
@@ -0,0 +1,497 @@
+package com.hmzadev.interactivechatbot.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Keeps oversized bot query results out of the heap. Rows are collected in memory up to
+ * threshold-rows; past that the result is written to a pair of temporary files (rows in a
+ * compact tagged binary format, plus an index of row offsets) and the caller only receives the
+ * first page and a handle. Later pages are read from the memory-mapped files.
+ * <p>
+ * Results expire ttl-minutes after they were last read. A single result stops growing once its
+ * rows and index together reach max-file-mb (and is flagged as truncated); when all spills
+ * together pass max-total-mb the least recently read ones are deleted first.
+ */
+@Service
+public class QueryResultSpillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryResultSpillService.class);
+
+    // Value tags of the row format; every value is one tag byte followed by its payload
+    private static final byte NULL = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte STRING = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte DECIMAL = 5;
+    private static final byte TIMESTAMP = 6;
+    private static final byte DATE = 7;
+    private static final byte BYTES = 8;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chat.sql.spill.dir:${java.io.tmpdir}/chat-spill}")
+    private Path spillDir;
+
+    @Value("${chat.sql.spill.threshold-rows:10000}")
+    private int thresholdRows;
+
+    @Value("${chat.sql.spill.first-page-rows:500}")
+    private int firstPageRows;
+
+    @Value("${chat.sql.spill.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${chat.sql.spill.max-file-mb:1024}")
+    private long maxFileMb;
+
+    @Value("${chat.sql.spill.max-total-mb:10240}")
+    private long maxTotalMb;
+
+    private final Map<String, SpilledResult> results = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private Counter spills;
+
+    // What the caller gets for a spilled result: the first page, plus where to find the rest
+    public static final class SpilledRows extends AbstractList<Map<String, Object>> {
+        private final List<Map<String, Object>> firstPage;
+        private final String handle;
+        private final long totalRows;
+        private final boolean truncated;
+
+        SpilledRows(List<Map<String, Object>> firstPage, String handle, long totalRows, boolean truncated) {
+            this.firstPage = firstPage;
+            this.handle = handle;
+            this.totalRows = totalRows;
+            this.truncated = truncated;
+        }
+
+        public String handle() {
+            return handle;
+        }
+
+        public long totalRows() {
+            return totalRows;
+        }
+
+        public boolean truncated() {
+            return truncated;
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            return firstPage.get(index);
+        }
+
+        @Override
+        public int size() {
+            return firstPage.size();
+        }
+    }
+
+    // A result that was not allowed to spill (history replay): the first threshold-rows rows only
+    public static final class TruncatedRows extends AbstractList<Map<String, Object>> {
+        private final List<Map<String, Object>> rows;
+        private final long totalRows;
+
+        TruncatedRows(List<Map<String, Object>> rows, long totalRows) {
+            this.rows = rows;
+            this.totalRows = totalRows;
+        }
+
+        public long totalRows() {
+            return totalRows;
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            return rows.get(index);
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+    }
+
+    public record Page(List<Map<String, Object>> rows, long totalRows, boolean truncated) {
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(spillDir);
+        // Files left by a previous process can never be read again
+        try (Stream<Path> leftovers = Files.list(spillDir)) {
+            leftovers.filter(path -> path.toString().endsWith(".rows") || path.toString().endsWith(".idx"))
+                    .forEach(QueryResultSpillService::deleteQuietly);
+        }
+        spills = meterRegistry.counter("chat.sql.spills");
+        meterRegistry.gauge("chat.sql.spill.bytes", totalBytes);
+    }
+
+    @PreDestroy
+    void close() {
+        results.keySet().forEach(this::remove);
+    }
+
+    /**
+     * Row handler for one bot query. With spilling disallowed (history replays, whose rows are
+     * only rendered inline) rows past the threshold are dropped instead, and the result is a
+     * TruncatedRows.
+     */
+    public SpillingCollector collector(boolean spillAllowed) {
+        return new SpillingCollector(spillAllowed);
+    }
+
+    // Binds a spilled result to the user whose question produced it; only they can page through it
+    public void claim(String handle, String owner) {
+        SpilledResult result = results.get(handle);
+        if (result != null) {
+            result.owner = owner;
+        }
+    }
+
+    public Optional<Page> page(String handle, String owner, long offset, int limit) {
+        SpilledResult result = results.get(handle);
+        if (result == null || result.owner == null || !result.owner.equals(owner)) {
+            return Optional.empty();
+        }
+        result.lastAccessMillis = System.currentTimeMillis();
+        try {
+            return Optional.of(new Page(result.read(offset, limit), result.rowCount, result.truncated));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.sql.spill.cleanup-ms:60000}")
+    public void removeExpired() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(ttlMinutes);
+        results.forEach((handle, result) -> {
+            if (result.lastAccessMillis < cutoff) {
+                remove(handle);
+            }
+        });
+    }
+
+    private void remove(String handle) {
+        SpilledResult result = results.remove(handle);
+        if (result != null) {
+            totalBytes.addAndGet(-result.bytes);
+            deleteQuietly(result.dataFile);
+            deleteQuietly(result.indexFile);
+        }
+    }
+
+    // Deletes the least recently read results until a new spill of up to max-file-mb fits
+    private void makeRoom() {
+        long limit = (maxTotalMb - maxFileMb) * 1024 * 1024;
+        results.values().stream()
+                .sorted(Comparator.comparingLong(result -> result.lastAccessMillis))
+                .takeWhile(result -> totalBytes.get() > limit)
+                .forEach(result -> remove(result.handle));
+    }
+
+    public final class SpillingCollector implements RowCallbackHandler {
+        private final boolean spillAllowed;
+        private final ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+        private final List<Map<String, Object>> rows = new ArrayList<>();
+        private SpillWriter writer;
+        private long rowCount;
+        private boolean dropped;
+
+        private SpillingCollector(boolean spillAllowed) {
+            this.spillAllowed = spillAllowed;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            Map<String, Object> row = rowMapper.mapRow(rs, (int) Math.min(rowCount, Integer.MAX_VALUE));
+            rowCount++;
+            try {
+                if (writer != null) {
+                    writer.write(row);
+                } else if (rows.size() < thresholdRows) {
+                    rows.add(row);
+                } else if (spillAllowed) {
+                    writer = new SpillWriter(new ArrayList<>(rows.get(0).keySet()));
+                    for (Map<String, Object> buffered : rows) {
+                        writer.write(buffered);
+                    }
+                    writer.write(row);
+                    // Only the first page stays on the heap
+                    rows.subList(Math.min(firstPageRows, rows.size()), rows.size()).clear();
+                } else {
+                    dropped = true;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public long rowCount() {
+            return rowCount;
+        }
+
+        // True when every row is in the returned list, so the result may be cached as a whole
+        public boolean complete() {
+            return writer == null && !dropped;
+        }
+
+        public List<Map<String, Object>> result() throws IOException {
+            if (writer == null) {
+                return dropped ? new TruncatedRows(rows, rowCount) : rows;
+            }
+            SpilledResult spilled = writer.finish();
+            return new SpilledRows(List.copyOf(rows), spilled.handle, spilled.rowCount, spilled.truncated);
+        }
+
+        // Removes a partially written spill after a failed query
+        public void abort() {
+            if (writer != null) {
+                writer.abort();
+            }
+        }
+    }
+
+    private final class SpillWriter {
+        private final String handle = UUID.randomUUID().toString();
+        private final List<String> columns;
+        private final Path dataFile;
+        private final Path indexFile;
+        private final DataOutputStream data;
+        private final DataOutputStream index;
+        // One row is encoded here first, so it is only written when it still fits
+        private final ByteArrayOutputStream rowBytes = new ByteArrayOutputStream(256);
+        private final DataOutputStream row = new DataOutputStream(rowBytes);
+        // Both files are mapped for reading, so together they also stay within int offsets
+        private final long maxBytes = Math.min(maxFileMb * 1024 * 1024, Integer.MAX_VALUE);
+        private long dataBytes;
+        private long rowCount;
+        private boolean truncated;
+
+        SpillWriter(List<String> columns) throws IOException {
+            makeRoom();
+            this.columns = columns;
+            this.dataFile = spillDir.resolve(handle + ".rows");
+            this.indexFile = spillDir.resolve(handle + ".idx");
+            this.data = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dataFile), 64 * 1024));
+            this.index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile), 16 * 1024));
+        }
+
+        void write(Map<String, Object> values) throws IOException {
+            if (truncated) {
+                return;
+            }
+            rowBytes.reset();
+            for (String column : columns) {
+                writeValue(values.get(column));
+            }
+            long indexBytes = (rowCount + 1) * Long.BYTES;
+            if (dataBytes + rowBytes.size() + indexBytes > maxBytes) {
+                truncated = true;
+                return;
+            }
+            index.writeLong(dataBytes);
+            rowBytes.writeTo(data);
+            dataBytes += rowBytes.size();
+            rowCount++;
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                row.writeByte(NULL);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                row.writeByte(LONG);
+                row.writeLong(((Number) value).longValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                row.writeByte(DOUBLE);
+                row.writeDouble(((Number) value).doubleValue());
+            } else if (value instanceof BigDecimal decimal) {
+                row.writeByte(DECIMAL);
+                writeString(decimal.toString());
+            } else if (value instanceof Boolean bool) {
+                row.writeByte(BOOLEAN);
+                row.writeBoolean(bool);
+            } else if (value instanceof Timestamp timestamp) {
+                row.writeByte(TIMESTAMP);
+                row.writeLong(timestamp.getTime());
+                row.writeInt(timestamp.getNanos());
+            } else if (value instanceof java.util.Date date) {
+                row.writeByte(DATE);
+                row.writeLong(date.getTime());
+            } else if (value instanceof byte[] bytes) {
+                row.writeByte(BYTES);
+                row.writeInt(bytes.length);
+                row.write(bytes);
+            } else {
+                row.writeByte(STRING);
+                writeString(value.toString());
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            row.writeInt(bytes.length);
+            row.write(bytes);
+        }
+
+        SpilledResult finish() throws IOException {
+            data.close();
+            index.close();
+            SpilledResult result = new SpilledResult(handle, columns, rowCount, truncated, dataFile, indexFile,
+                    Files.size(dataFile) + Files.size(indexFile));
+            results.put(handle, result);
+            totalBytes.addAndGet(result.bytes);
+            spills.increment();
+            logger.info("Spilled {} rows ({} KB{}) of a bot query to {}", rowCount, result.bytes / 1024,
+                    truncated ? ", truncated" : "", dataFile);
+            return result;
+        }
+
+        void abort() {
+            try {
+                data.close();
+                index.close();
+            } catch (IOException ignored) {
+                // Deleting below is all that matters
+            }
+            deleteQuietly(dataFile);
+            deleteQuietly(indexFile);
+        }
+    }
+
+    private static final class SpilledResult {
+        private final String handle;
+        private final List<String> columns;
+        private final long rowCount;
+        private final boolean truncated;
+        private final Path dataFile;
+        private final Path indexFile;
+        private final long bytes;
+        private volatile String owner;
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+        private MappedByteBuffer data;
+        private MappedByteBuffer index;
+
+        SpilledResult(String handle, List<String> columns, long rowCount, boolean truncated,
+                      Path dataFile, Path indexFile, long bytes) {
+            this.handle = handle;
+            this.columns = columns;
+            this.rowCount = rowCount;
+            this.truncated = truncated;
+            this.dataFile = dataFile;
+            this.indexFile = indexFile;
+            this.bytes = bytes;
+        }
+
+        List<Map<String, Object>> read(long offset, int limit) throws IOException {
+            if (offset < 0 || offset >= rowCount || limit <= 0) {
+                return List.of();
+            }
+            ByteBuffer rows = mapped();
+            int end = (int) Math.min(rowCount, offset + limit);
+            // Both files are capped below 2 GB when written, so these positions fit an int
+            rows.position((int) index.getLong((int) (offset * Long.BYTES)));
+            List<Map<String, Object>> page = new ArrayList<>(end - (int) offset);
+            for (long row = offset; row < end; row++) {
+                Map<String, Object> values = new LinkedHashMap<>(columns.size() * 2);
+                for (String column : columns) {
+                    values.put(column, readValue(rows));
+                }
+                page.add(values);
+            }
+            return page;
+        }
+
+        // Maps both files on first read; each reader then works on its own view of the rows
+        private synchronized ByteBuffer mapped() throws IOException {
+            if (data == null) {
+                try (FileChannel dataChannel = FileChannel.open(dataFile, StandardOpenOption.READ);
+                     FileChannel indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+                    data = dataChannel.map(FileChannel.MapMode.READ_ONLY, 0, dataChannel.size());
+                    index = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+                }
+            }
+            return data.duplicate();
+        }
+
+        private static Object readValue(ByteBuffer buffer) {
+            byte tag = buffer.get();
+            return switch (tag) {
+                case NULL -> null;
+                case LONG -> buffer.getLong();
+                case DOUBLE -> buffer.getDouble();
+                case DECIMAL -> new BigDecimal(readString(buffer));
+                case BOOLEAN -> buffer.get() != 0;
+                case TIMESTAMP -> {
+                    Timestamp timestamp = new Timestamp(buffer.getLong());
+                    timestamp.setNanos(buffer.getInt());
+                    yield timestamp;
+                }
+                case DATE -> new java.sql.Date(buffer.getLong());
+                case BYTES -> {
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    yield bytes;
+                }
+                default -> readString(buffer);
+            };
+        }
+
+        private static String readString(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete spill file {}: {}", path, e.getMessage());
+        }
+    }
+}
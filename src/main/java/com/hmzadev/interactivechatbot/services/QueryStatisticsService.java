@@ -0,0 +1,126 @@
+package com.hmzadev.interactivechatbot.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-fingerprint statistics for bot-generated SQL. Recording only touches LongAdders and a
+ * LongAccumulator, so concurrent asks never contend on a lock. Once max-fingerprints distinct
+ * shapes have been seen, new ones are folded into a single "OTHER" entry.
+ * <p>
+ * Statements slower than chat.sql.slow-query-ms go to the "chat.sql.slow" logger together with
+ * the question that produced them.
+ */
+@Service
+public class QueryStatisticsService {
+
+    static final String OTHER = "OTHER";
+
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("chat.sql.slow");
+
+    private final ConcurrentHashMap<String, QueryStats> statistics = new ConcurrentHashMap<>();
+    private final int maxFingerprints;
+    private final long slowQueryNanos;
+
+    public QueryStatisticsService(@Value("${chat.sql.stats.max-fingerprints:5000}") int maxFingerprints,
+                                  @Value("${chat.sql.slow-query-ms:1000}") long slowQueryMs) {
+        this.maxFingerprints = maxFingerprints;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+    }
+
+    public void record(String fingerprint, String sqlQuery, String question, long nanos, int rows, boolean failed) {
+        QueryStats stats = statistics.get(fingerprint);
+        if (stats == null) {
+            String key = statistics.size() < maxFingerprints ? fingerprint : OTHER;
+            stats = statistics.computeIfAbsent(key, k -> new QueryStats(k, sqlQuery));
+        }
+        stats.calls.increment();
+        stats.totalNanos.add(nanos);
+        stats.maxNanos.accumulate(nanos);
+        stats.rows.add(rows);
+        if (failed) {
+            stats.errors.increment();
+        }
+
+        if (nanos >= slowQueryNanos) {
+            slowQueryLog.warn("Slow bot query: {} ms, {} rows{}, fingerprint [{}], question [{}], sql [{}]",
+                    TimeUnit.NANOSECONDS.toMillis(nanos), rows, failed ? " (failed)" : "", fingerprint, question, sqlQuery);
+        }
+    }
+
+    public enum SortBy {
+        TOTAL, MAX, CALLS, ROWS, ERRORS
+    }
+
+    public List<Map<String, Object>> top(SortBy sortBy, int limit) {
+        Comparator<QueryStats> order = switch (sortBy) {
+            case MAX -> Comparator.comparingLong(s -> s.maxNanos.get());
+            case CALLS -> Comparator.comparingLong(s -> s.calls.sum());
+            case ROWS -> Comparator.comparingLong(s -> s.rows.sum());
+            case ERRORS -> Comparator.comparingLong(s -> s.errors.sum());
+            default -> Comparator.comparingLong(s -> s.totalNanos.sum());
+        };
+        return statistics.values().stream()
+                .sorted(order.reversed())
+                .limit(limit)
+                .map(QueryStats::toMap)
+                .toList();
+    }
+
+    public record Totals(long calls, long totalNanos) {
+        public static final Totals ZERO = new Totals(0, 0);
+    }
+
+    // Cumulative calls and time per fingerprint, for consumers that diff successive snapshots
+    public Map<String, Totals> totals() {
+        Map<String, Totals> totals = new HashMap<>(statistics.size() * 2);
+        statistics.forEach((fingerprint, stats) -> totals.put(fingerprint, new Totals(stats.calls.sum(), stats.totalNanos.sum())));
+        return totals;
+    }
+
+    public void reset() {
+        statistics.clear();
+    }
+
+    private static final class QueryStats {
+        private final String fingerprint;
+        private final String example;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        QueryStats(String fingerprint, String example) {
+            this.fingerprint = fingerprint;
+            this.example = example;
+        }
+
+        Map<String, Object> toMap() {
+            long callCount = calls.sum();
+            long total = totalNanos.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("fingerprint", fingerprint);
+            map.put("example", example);
+            map.put("calls", callCount);
+            map.put("totalMs", total / 1_000_000.0);
+            map.put("meanMs", callCount == 0 ? 0.0 : total / 1_000_000.0 / callCount);
+            map.put("maxMs", maxNanos.get() / 1_000_000.0);
+            map.put("rows", rows.sum());
+            map.put("errors", errors.sum());
+            return map;
+        }
+    }
+}
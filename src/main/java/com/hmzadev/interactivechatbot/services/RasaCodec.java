@@ -0,0 +1,157 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads and writes the Rasa REST channel format. Requests go through one shared ObjectWriter
+ * (so questions are escaped properly); responses are read with a streaming parser straight into
+ * {@link RasaMessage} records, without building a JsonNode tree. All members are thread-safe.
+ */
+public final class RasaCodec {
+
+    // Text replies carry the statement after "query: ", up to the end of that line
+    private static final Pattern SQL_IN_TEXT = Pattern.compile("query: (.+)");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory JSON_FACTORY = MAPPER.getFactory();
+    private static final ObjectWriter REQUEST_WRITER = MAPPER.writerFor(RasaRequest.class);
+
+    public record RasaRequest(String sender, String message) {
+    }
+
+    public record RasaButton(String title, String payload) {
+    }
+
+    // One element of the webhook's response array; custom holds the raw JSON of a custom payload
+    public record RasaMessage(String recipientId, String text, List<RasaButton> buttons, String custom) {
+    }
+
+    private RasaCodec() {
+    }
+
+    public static String writeRequest(String sender, String message) {
+        try {
+            return REQUEST_WRITER.writeValueAsString(new RasaRequest(sender, message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode Rasa request", e);
+        }
+    }
+
+    // Returns an empty list for anything that is not a JSON array of messages
+    public static List<RasaMessage> readResponse(String body) {
+        if (body == null || body.isEmpty()) {
+            return List.of();
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return List.of();
+            }
+            List<RasaMessage> messages = new ArrayList<>(2);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                messages.add(readMessage(parser));
+            }
+            return messages;
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * The SQL statement in a response: the "query" (or "sql") field of a custom payload if there is
+     * one, otherwise the text after "query: " in the first text message that has it. As before,
+     * a first text without that marker is returned whole; null when there is no text at all.
+     */
+    public static String extractSql(List<RasaMessage> messages) {
+        String firstText = null;
+        for (RasaMessage message : messages) {
+            if (message.custom() != null) {
+                String fromCustom = sqlFromCustom(message.custom());
+                if (fromCustom != null) {
+                    return fromCustom;
+                }
+            }
+            if (message.text() != null) {
+                Matcher matcher = SQL_IN_TEXT.matcher(message.text());
+                if (matcher.find()) {
+                    return matcher.group(1).trim();
+                }
+                if (firstText == null) {
+                    firstText = message.text();
+                }
+            }
+        }
+        return firstText != null ? firstText.trim() : null;
+    }
+
+    private static RasaMessage readMessage(JsonParser parser) throws IOException {
+        String recipientId = null;
+        String text = null;
+        List<RasaButton> buttons = List.of();
+        String custom = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "recipient_id" -> recipientId = parser.getValueAsString();
+                case "text" -> text = parser.getValueAsString();
+                case "buttons" -> buttons = value == JsonToken.START_ARRAY ? readButtons(parser) : List.of();
+                case "custom" -> {
+                    TreeNode tree = parser.readValueAsTree();
+                    custom = tree != null ? tree.toString() : null;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return new RasaMessage(recipientId, text, buttons, custom);
+    }
+
+    private static List<RasaButton> readButtons(JsonParser parser) throws IOException {
+        List<RasaButton> buttons = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String title = null;
+            String payload = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "title" -> title = parser.getValueAsString();
+                    case "payload" -> payload = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+            buttons.add(new RasaButton(title, payload));
+        }
+        return buttons;
+    }
+
+    private static String sqlFromCustom(String custom) {
+        try (JsonParser parser = JSON_FACTORY.createParser(custom)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ((field.equals("query") || field.equals("sql")) && value == JsonToken.VALUE_STRING) {
+                    return parser.getText().trim();
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // Not an object we understand
+        }
+        return null;
+    }
+}
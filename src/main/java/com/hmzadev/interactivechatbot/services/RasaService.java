@@ -0,0 +1,98 @@
+package com.hmzadev.interactivechatbot.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+@Service
+public class RasaService {
+
+    private final RestTemplate restTemplate;
+    private final WebClient webClient;
+    private final String rasaUrl;
+    private final String rasaHealthUrl;
+    private final ChatMetrics chatMetrics;
+
+    public RasaService(RestTemplate restTemplate, WebClient.Builder webClientBuilder, ChatMetrics chatMetrics,
+                       @Value("${rasa.url:http://localhost:5005/webhooks/rest/webhook}") String rasaUrl,
+                       @Value("${rasa.health-url:http://localhost:5005/}") String rasaHealthUrl) {
+        this.restTemplate = restTemplate;
+        this.webClient = webClientBuilder.build();
+        this.rasaUrl = rasaUrl;
+        this.rasaHealthUrl = rasaHealthUrl;
+        this.chatMetrics = chatMetrics;
+    }
+
+    // Health-only call to the Rasa server root: opens the connection without running the NLU pipeline
+    public boolean ping() {
+        try {
+            return restTemplate.getForEntity(rasaHealthUrl, String.class).getStatusCode().is2xxSuccessful();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public String forwardQuestionToRasaBot(String question) {
+        String botResponse = chatMetrics.time(ChatMetrics.RASA, () -> postToRasa(question));
+        if (botResponse == null) {
+            chatMetrics.rasaFailure();
+        }
+        return botResponse;
+    }
+
+    private String postToRasa(String question) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<String> entity = new HttpEntity<>(buildPayload(question), headers);
+
+        ChatFlightEvents.RasaCall event = new ChatFlightEvents.RasaCall();
+        event.begin();
+        String body = null;
+        try {
+            ResponseEntity<String> response = restTemplate.postForEntity(rasaUrl, entity, String.class);
+            body = response.getBody();
+            return body;
+        } catch (Exception e) {
+            return null;  // Return null to indicate a failure to communicate with the Rasa bot
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.questionLength = question.length();
+                event.responseLength = body != null ? body.length() : 0;
+                event.succeeded = body != null;
+                event.commit();
+            }
+        }
+    }
+
+    // Non-blocking variant for the reactive endpoints; completes empty when Rasa cannot be reached
+    public Mono<String> forwardQuestionToRasaBotReactive(String question) {
+        return webClient.post()
+                .uri(rasaUrl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(buildPayload(question))
+                .retrieve()
+                .bodyToMono(String.class)
+                .onErrorResume(e -> {
+                    chatMetrics.rasaFailure();
+                    return Mono.empty();
+                });
+    }
+
+    public String extractAnswerFromResponse(String botResponse) {
+        String sqlQuery = chatMetrics.time(ChatMetrics.EXTRACT,
+                () -> RasaCodec.extractSql(RasaCodec.readResponse(botResponse)));
+        if (sqlQuery == null || sqlQuery.isEmpty()) {
+            chatMetrics.emptyExtraction();
+        }
+        return sqlQuery;
+    }
+
+    private String buildPayload(String question) {
+        return RasaCodec.writeRequest("user123", question);
+    }
+}
@@ -0,0 +1,153 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.dao.Role;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory, per-user rate limiter. Each bucket is a GCRA cell (the lock-free form of a token bucket):
+ * its whole state is one "theoretical arrival time" updated with CAS, so concurrent requests never block.
+ * Buckets are spread over a fixed number of stripes, each bounded in size, and idle buckets are evicted.
+ */
+@Service
+public class RateLimitService {
+
+    public enum BucketType {
+        QUESTIONS,  // Rasa + SQL
+        READS       // History and session listings
+    }
+
+    public record Limit(int capacity, long emissionIntervalNanos) {
+        static Limit perMinute(int perMinute, int burst) {
+            return new Limit(Math.max(1, burst), TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute));
+        }
+
+        long burstToleranceNanos() {
+            return emissionIntervalNanos * capacity;
+        }
+    }
+
+    public record Decision(boolean allowed, int limit, long remaining, long resetSeconds, long retryAfterSeconds) {
+    }
+
+    private static final int STRIPES = 16;
+    private static final String OVERFLOW_KEY = "__overflow__";
+
+    private final Map<BucketType, Map<Role, Limit>> limits = new EnumMap<>(BucketType.class);
+    private final ConcurrentHashMap<String, Bucket>[] stripes;
+    private final int maxBucketsPerStripe;
+    private final long idleEvictionNanos;
+
+    @SuppressWarnings("unchecked")
+    public RateLimitService(@Value("${ratelimit.user.questions-per-minute:20}") int userQuestionsPerMinute,
+                            @Value("${ratelimit.user.questions-burst:5}") int userQuestionsBurst,
+                            @Value("${ratelimit.user.reads-per-minute:300}") int userReadsPerMinute,
+                            @Value("${ratelimit.user.reads-burst:60}") int userReadsBurst,
+                            @Value("${ratelimit.admin.questions-per-minute:120}") int adminQuestionsPerMinute,
+                            @Value("${ratelimit.admin.questions-burst:20}") int adminQuestionsBurst,
+                            @Value("${ratelimit.admin.reads-per-minute:1200}") int adminReadsPerMinute,
+                            @Value("${ratelimit.admin.reads-burst:200}") int adminReadsBurst,
+                            @Value("${ratelimit.max-buckets:100000}") int maxBuckets,
+                            @Value("${ratelimit.idle-eviction-minutes:10}") long idleEvictionMinutes) {
+        Map<Role, Limit> questions = new EnumMap<>(Role.class);
+        questions.put(Role.USER, Limit.perMinute(userQuestionsPerMinute, userQuestionsBurst));
+        questions.put(Role.ADMIN, Limit.perMinute(adminQuestionsPerMinute, adminQuestionsBurst));
+        limits.put(BucketType.QUESTIONS, questions);
+
+        Map<Role, Limit> reads = new EnumMap<>(Role.class);
+        reads.put(Role.USER, Limit.perMinute(userReadsPerMinute, userReadsBurst));
+        reads.put(Role.ADMIN, Limit.perMinute(adminReadsPerMinute, adminReadsBurst));
+        limits.put(BucketType.READS, reads);
+
+        this.maxBucketsPerStripe = Math.max(1, maxBuckets / STRIPES);
+        this.idleEvictionNanos = TimeUnit.MINUTES.toNanos(idleEvictionMinutes);
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    public Decision tryAcquire(String key, Role role, BucketType type) {
+        Limit limit = limits.get(type).get(role != null ? role : Role.USER);
+        long now = System.nanoTime();
+        return bucketFor(type.name() + ':' + key, now).tryAcquire(limit, now);
+    }
+
+    private Bucket bucketFor(String bucketKey, long now) {
+        ConcurrentHashMap<String, Bucket> stripe = stripes[(bucketKey.hashCode() & 0x7fffffff) % STRIPES];
+        Bucket bucket = stripe.get(bucketKey);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxBucketsPerStripe) {
+            evictIdle(stripe, now);
+            if (stripe.size() >= maxBucketsPerStripe) {
+                // Stripe is full of active buckets: share one conservative bucket instead of growing
+                return stripe.computeIfAbsent(OVERFLOW_KEY, k -> new Bucket(now));
+            }
+        }
+        return stripe.computeIfAbsent(bucketKey, k -> new Bucket(now));
+    }
+
+    // Periodically drop buckets nobody has touched for a while
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, Bucket> stripe : stripes) {
+            evictIdle(stripe, now);
+        }
+    }
+
+    private void evictIdle(ConcurrentHashMap<String, Bucket> stripe, long now) {
+        stripe.values().removeIf(bucket -> now - bucket.lastSeen > idleEvictionNanos);
+    }
+
+    public int bucketCount() {
+        int count = 0;
+        for (ConcurrentHashMap<String, Bucket> stripe : stripes) {
+            count += stripe.size();
+        }
+        return count;
+    }
+
+    private static final class Bucket {
+        private final AtomicLong theoreticalArrival;
+        private volatile long lastSeen;
+
+        Bucket(long now) {
+            this.theoreticalArrival = new AtomicLong(now);
+            this.lastSeen = now;
+        }
+
+        Decision tryAcquire(Limit limit, long now) {
+            lastSeen = now;
+            long interval = limit.emissionIntervalNanos();
+            long tolerance = limit.burstToleranceNanos();
+            while (true) {
+                long tat = theoreticalArrival.get();
+                long newTat = Math.max(tat, now) + interval;
+                long ahead = newTat - now;
+                if (ahead > tolerance) {
+                    long retryAfter = ahead - tolerance;
+                    return new Decision(false, limit.capacity(), 0,
+                            toSecondsCeil(Math.max(tat, now) - now), toSecondsCeil(retryAfter));
+                }
+                if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                    long remaining = (tolerance - ahead) / interval;
+                    return new Decision(true, limit.capacity(), remaining, toSecondsCeil(ahead), 0);
+                }
+            }
+        }
+
+        private static long toSecondsCeil(long nanos) {
+            return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.dao.SenderType;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Non-blocking counterpart of the chat persistence used by ChatSessionRestController.
+ * The R2DBC pool is private to this service on purpose: a ConnectionFactory bean would make
+ * Spring Boot back off from creating the JDBC DataSource that JPA and security still rely on.
+ */
+@Service
+@ConditionalOnProperty(name = "chat.reactive.enabled", havingValue = "true")
+public class ReactiveChatService {
+
+    private static final String GENERATED_PREFIX = "ChatSession: generated ";
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+    private final ResourceVersionService resourceVersionService;
+    private final HotSessionCache hotSessionCache;
+    private final BotPayloadService botPayloadService;
+    private final ChatMetrics chatMetrics;
+
+    public ReactiveChatService(@Value("${chat.reactive.r2dbc.url}") String url,
+                               @Value("${chat.reactive.r2dbc.username:}") String username,
+                               @Value("${chat.reactive.r2dbc.password:}") String password,
+                               @Value("${chat.reactive.r2dbc.pool-size:20}") int poolSize,
+                               ResourceVersionService resourceVersionService,
+                               HotSessionCache hotSessionCache,
+                               BotPayloadService botPayloadService,
+                               ChatMetrics chatMetrics) {
+        this.resourceVersionService = resourceVersionService;
+        this.hotSessionCache = hotSessionCache;
+        this.botPayloadService = botPayloadService;
+        this.chatMetrics = chatMetrics;
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .maxSize(poolSize)
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    // Completes empty when the session does not exist or belongs to someone else
+    public Mono<Long> findOwnedSessionId(Long sessionId, String username) {
+        return databaseClient.sql("SELECT c.id FROM chat_sessions c JOIN users u ON u.id = c.user_id " +
+                        "WHERE c.id = :sessionId AND u.username = :username")
+                .bind("sessionId", sessionId)
+                .bind("username", username)
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    public Mono<Long> findUserId(String username) {
+        return databaseClient.sql("SELECT id FROM users WHERE username = :username")
+                .bind("username", username)
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    public Mono<Long> getOrCreateChatSession(Long userId, String sessionName) {
+        return databaseClient.sql("SELECT id FROM chat_sessions WHERE user_id = :userId ORDER BY id")
+                .bind("userId", userId)
+                .map(row -> row.get("id", Long.class))
+                .first()
+                .switchIfEmpty(Mono.defer(() -> createChatSession(userId, sessionName)));
+    }
+
+    public Mono<Long> createGeneratedChatSession(Long userId) {
+        return databaseClient.sql("SELECT COALESCE(MAX(CAST(SUBSTRING(name, " + (GENERATED_PREFIX.length() + 1) +
+                        ", 10) AS INT)), 0) AS max_number FROM chat_sessions WHERE name LIKE :pattern")
+                .bind("pattern", GENERATED_PREFIX + "%")
+                .map(row -> row.get("max_number", Integer.class))
+                .one()
+                .defaultIfEmpty(0)
+                .flatMap(max -> createChatSession(userId, GENERATED_PREFIX + (max + 1)));
+    }
+
+    private Mono<Long> createChatSession(Long userId, String name) {
+        return databaseClient.sql("INSERT INTO chat_sessions (user_id, created_at, name) VALUES (:userId, :createdAt, :name)")
+                .bind("userId", userId)
+                .bind("createdAt", LocalDateTime.now())
+                .bind("name", name)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    public Mono<Void> saveMessage(Long sessionId, String content, SenderType sender) {
+        LocalDateTime timestamp = LocalDateTime.now();
+        Mono<Optional<String>> payloadHash = sender == SenderType.BOT && botPayloadService.shouldExternalize(content)
+                ? storePayload(content).map(Optional::of)
+                : Mono.just(Optional.empty());
+        return payloadHash.flatMap(hash -> {
+                    // Sender goes in as plain text: H2 rejects the bound string for its enum column once generated ids are requested
+                    DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(
+                                    "INSERT INTO messages (chat_session_id, content, timestamp, sender, payload_hash) " +
+                                    "VALUES (:sessionId, :content, :timestamp, CAST(:sender AS VARCHAR(10)), :payloadHash)")
+                            .bind("sessionId", sessionId)
+                            .bind("content", hash.isPresent() ? "" : content)
+                            .bind("timestamp", timestamp)
+                            .bind("sender", sender.name());
+                    return (hash.isPresent() ? insert.bind("payloadHash", hash.get()) : insert.bindNull("payloadHash", String.class))
+                            .filter(statement -> statement.returnGeneratedValues("id"))
+                            .map(row -> row.get("id", Long.class))
+                            .one();
+                })
+                .doOnNext(messageId -> {
+                    resourceVersionService.sessionChanged(sessionId);
+                    hotSessionCache.append(sessionId, messageId, content, sender, timestamp);
+                })
+                .then();
+    }
+
+    // Reactive counterpart of BotPayloadService.intern, sharing its set of stored hashes
+    private Mono<String> storePayload(String content) {
+        String hash = BotPayloadService.hash(content);
+        if (botPayloadService.isStored(hash)) {
+            return Mono.just(hash);
+        }
+        return databaseClient.sql("INSERT INTO bot_payloads (hash, content, created_at) VALUES (:hash, :content, :createdAt)")
+                .bind("hash", hash)
+                .bind("content", content)
+                .bind("createdAt", LocalDateTime.now())
+                .then()
+                // A duplicate key means another writer stored the same content first
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.empty())
+                .then(Mono.fromRunnable(() -> botPayloadService.markStored(hash)))
+                .thenReturn(hash);
+    }
+
+    /**
+     * Rows of the bot query for an ask. As on the servlet path, the bot message is only stored
+     * for a non-empty result: it is saved when the first row arrives, before that row is emitted,
+     * and an empty or failed query leaves just the question in the history.
+     */
+    public Flux<Map<String, Object>> answer(Long sessionId, String botResponse, String sqlQuery) {
+        return executeQuery(sqlQuery)
+                .switchOnFirst((first, rows) -> first.hasValue()
+                        ? saveMessage(sessionId, botResponse, SenderType.BOT).thenMany(rows)
+                        : rows);
+    }
+
+    /**
+     * Streams the rows of a bot-generated query. Rows are pulled from the database cursor only as
+     * fast as the subscriber (ultimately the HTTP response) requests them. Statements are checked
+     * against the same BotQueryPolicy as DatabaseService.executeBotQuery.
+     */
+    public Flux<Map<String, Object>> executeQuery(String sqlQuery) {
+        if (!BotQueryPolicy.isRead(sqlQuery)) {
+            chatMetrics.rejectedQuery();
+            return Flux.error(new IllegalArgumentException("Query must be a SELECT or WITH statement"));
+        }
+        return databaseClient.sql(sqlQuery)
+                .fetch()
+                .all();
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,144 @@
+package com.hmzadev.interactivechatbot.services;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory version counters behind the ETags of the history and session-list endpoints. Every
+ * write to a session's messages bumps that session; creating a session bumps its owner's list.
+ * Tags embed a per-process epoch, so after a restart clients simply get one full response.
+ * <p>
+ * Counters are striped: a session (or username) shares a fixed slot with every other key hashing
+ * to it, so memory stays constant however many sessions exist. A collision only turns a 304 into
+ * a 200, never the reverse, because any write to a key moves the slot it reads.
+ * <p>
+ * With several instances, writes are also published to the cache change log (CacheInvalidationLog)
+ * and applied by the other instances when they poll, so their tags move within one poll interval.
+ * Without chat.cache.invalidation.enabled the counters only see local writes and the 304s are
+ * only safe for a single instance.
+ * <p>
+ * Building a tag needs no database access, so an unchanged resource is answered before any query.
+ */
+@Service
+public class ResourceVersionService {
+
+    public record ResourceVersion(String eTag, long lastModifiedMillis) {
+    }
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final long startedAt = System.currentTimeMillis();
+    private final Stripes sessionVersions;
+    private final Stripes sessionListVersions;
+    private final long queryResultTtlMillis;
+    // Resolved on first write; the log itself applies remote changes through this service
+    private final ObjectProvider<CacheInvalidationLog> cacheInvalidationLog;
+
+    public ResourceVersionService(@Value("${chat.etag.query-result-ttl-seconds:60}") long queryResultTtlSeconds,
+                                  @Value("${chat.etag.version-stripes:4096}") int stripes,
+                                  ObjectProvider<CacheInvalidationLog> cacheInvalidationLog) {
+        this.queryResultTtlMillis = TimeUnit.SECONDS.toMillis(Math.max(1, queryResultTtlSeconds));
+        this.sessionVersions = new Stripes(stripes);
+        this.sessionListVersions = new Stripes(stripes);
+        this.cacheInvalidationLog = cacheInvalidationLog;
+    }
+
+    public void sessionChanged(Long sessionId) {
+        if (sessionId != null) {
+            applySessionChange(sessionId);
+            cacheInvalidationLog.ifAvailable(log -> log.publish(CacheInvalidationLog.SESSION_MESSAGES, sessionId));
+        }
+    }
+
+    public void sessionListChanged(String username) {
+        if (username != null) {
+            int usernameHash = username.hashCode();
+            applySessionListChange(usernameHash);
+            // The hash picks the stripe, and unlike the username it always fits the log's id column
+            cacheInvalidationLog.ifAvailable(log -> log.publish(CacheInvalidationLog.SESSION_LISTS, usernameHash));
+        }
+    }
+
+    // Local or remote write, without publishing it again
+    void applySessionChange(long sessionId) {
+        sessionVersions.bump(Long.hashCode(sessionId));
+    }
+
+    void applySessionListChange(int usernameHash) {
+        sessionListVersions.bump(usernameHash);
+    }
+
+    // Current write version of a session; used to detect writes that race with a cache fill
+    public long sessionVersion(Long sessionId) {
+        return sessionVersions.counter(Long.hashCode(sessionId));
+    }
+
+    /**
+     * History tag. Bot messages are replayed against live data, so the tag also rolls over every
+     * chat.etag.query-result-ttl-seconds; it is bound to the user so it cannot be reused by another.
+     */
+    public ResourceVersion history(Long sessionId, String username) {
+        int hash = Long.hashCode(sessionId);
+        long now = System.currentTimeMillis();
+        long window = now / queryResultTtlMillis;
+        String tag = "h-" + epoch + "." + sessionId + "." + sessionVersions.counter(hash) + "." + window
+                + "." + userTag(username);
+        return new ResourceVersion(weak(tag), Math.max(sessionVersions.lastModified(hash), window * queryResultTtlMillis));
+    }
+
+    // Session-list tag; includes today's date because sessions move between Today/Yesterday/... buckets
+    public ResourceVersion sessionList(String username) {
+        int hash = username.hashCode();
+        LocalDate today = LocalDate.now();
+        long startOfDay = today.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String tag = "s-" + epoch + "." + sessionListVersions.counter(hash) + "." + today + "." + userTag(username);
+        return new ResourceVersion(weak(tag), Math.max(sessionListVersions.lastModified(hash), startOfDay));
+    }
+
+    // Weak tags: the body is equivalent, not byte-identical, and Tomcat only gzips responses without a strong ETag
+    private static String weak(String tag) {
+        return "W/\"" + tag + "\"";
+    }
+
+    private static String userTag(String username) {
+        return Integer.toHexString(username.hashCode());
+    }
+
+    // Fixed number of counter slots (rounded up to a power of two), each with the time of its last bump
+    private final class Stripes {
+        private final AtomicLongArray counters;
+        private final AtomicLongArray lastModified;
+        private final int mask;
+
+        Stripes(int stripes) {
+            int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+            this.counters = new AtomicLongArray(size);
+            this.lastModified = new AtomicLongArray(size);
+            this.mask = size - 1;
+        }
+
+        void bump(int hash) {
+            int slot = slot(hash);
+            counters.incrementAndGet(slot);
+            lastModified.accumulateAndGet(slot, System.currentTimeMillis(), Math::max);
+        }
+
+        long counter(int hash) {
+            return counters.get(slot(hash));
+        }
+
+        long lastModified(int hash) {
+            return Math.max(startedAt, lastModified.get(slot(hash)));
+        }
+
+        private int slot(int hash) {
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.hmzadev.interactivechatbot.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * sessionId -> owner user id, kept in primitive open-addressing tables (no boxing, two longs per
+ * entry). The table is split into segments, each guarded by a StampedLock: lookups are optimistic
+ * reads and only fall back to a read lock when they race with a write.
+ * <p>
+ * Segments never grow; one that reaches its load limit is cleared and refills from the owner
+ * query. Entries are invalidated when a session is updated or deleted (ChatSessionOwnershipListener).
+ */
+@Service
+public class SessionOwnershipCache {
+
+    public static final long ABSENT = -1L;
+
+    private static final int SEGMENTS = 16;
+    private static final long EMPTY_KEY = 0L;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final Counter hits;
+    private final Counter misses;
+
+    public SessionOwnershipCache(MeterRegistry meterRegistry,
+                                 @Value("${chat.ownership-cache.max-entries:100000}") int maxEntries) {
+        int perSegment = Math.max(16, maxEntries / SEGMENTS);
+        int capacity = Integer.highestOneBit(perSegment * 2 - 1) * 2;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity, perSegment);
+        }
+        this.hits = meterRegistry.counter("chat.ownership-cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("chat.ownership-cache.requests", "result", "miss");
+    }
+
+    // Owner id of the session, or ABSENT when it is not cached
+    public long get(long sessionId) {
+        // The empty-slot marker would otherwise match any free slot
+        long owner = sessionId == EMPTY_KEY ? ABSENT : segmentFor(sessionId).get(sessionId);
+        (owner == ABSENT ? misses : hits).increment();
+        return owner;
+    }
+
+    public void put(long sessionId, long ownerId) {
+        if (sessionId != EMPTY_KEY) {
+            segmentFor(sessionId).put(sessionId, ownerId);
+        }
+    }
+
+    public void invalidate(long sessionId) {
+        if (sessionId != EMPTY_KEY) {
+            segmentFor(sessionId).remove(sessionId);
+        }
+    }
+
+    private Segment segmentFor(long sessionId) {
+        return segments[(int) (mix(sessionId) >>> 60) & (SEGMENTS - 1)];
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private final long[] keys;
+        private final long[] values;
+        private final int mask;
+        private final int maxSize;
+        private int size;
+
+        Segment(int capacity, int maxSize) {
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+            this.mask = capacity - 1;
+            this.maxSize = maxSize;
+        }
+
+        long get(long key) {
+            long stamp = lock.tryOptimisticRead();
+            long value = find(key);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+            stamp = lock.readLock();
+            try {
+                return find(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private long find(long key) {
+            int index = (int) mix(key) & mask;
+            // Bounded by capacity so a torn optimistic read can never spin forever
+            for (int probes = 0; probes <= mask; probes++) {
+                long current = keys[index];
+                if (current == key) {
+                    return values[index];
+                }
+                if (current == EMPTY_KEY) {
+                    return ABSENT;
+                }
+                index = (index + 1) & mask;
+            }
+            return ABSENT;
+        }
+
+        void put(long key, long value) {
+            long stamp = lock.writeLock();
+            try {
+                if (size >= maxSize) {
+                    Arrays.fill(keys, EMPTY_KEY);
+                    size = 0;
+                }
+                int index = (int) mix(key) & mask;
+                while (keys[index] != EMPTY_KEY && keys[index] != key) {
+                    index = (index + 1) & mask;
+                }
+                if (keys[index] == EMPTY_KEY) {
+                    keys[index] = key;
+                    size++;
+                }
+                values[index] = value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void remove(long key) {
+            long stamp = lock.writeLock();
+            try {
+                int index = (int) mix(key) & mask;
+                while (keys[index] != key) {
+                    if (keys[index] == EMPTY_KEY) {
+                        return;
+                    }
+                    index = (index + 1) & mask;
+                }
+                // Backward-shift deletion keeps every remaining key reachable without tombstones
+                int gap = index;
+                int next = (gap + 1) & mask;
+                while (keys[next] != EMPTY_KEY) {
+                    int home = (int) mix(keys[next]) & mask;
+                    if (((next - home) & mask) >= ((next - gap) & mask)) {
+                        keys[gap] = keys[next];
+                        values[gap] = values[next];
+                        gap = next;
+                    }
+                    next = (next + 1) & mask;
+                }
+                keys[gap] = EMPTY_KEY;
+                size--;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+}
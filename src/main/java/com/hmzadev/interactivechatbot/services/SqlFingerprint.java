@@ -0,0 +1,126 @@
+package com.hmzadev.interactivechatbot.services;
+
+/**
+ * Normalizes a bot-generated statement so that queries differing only in literals share a key:
+ * string and numeric literals become '?', IN lists collapse to (?...), whitespace is collapsed and
+ * everything outside quoted identifiers is upper-cased. Single pass, no regex.
+ */
+public final class SqlFingerprint {
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        boolean pendingSpace = false;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = out.length() > 0;
+                i++;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'') {
+                // String literal, '' is an escaped quote
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                out.append('?');
+            } else if (c == '"' || c == '[') {
+                // Quoted identifier: keep as written
+                char close = c == '"' ? '"' : ']';
+                int end = sql.indexOf(close, i + 1);
+                end = end < 0 ? length - 1 : end;
+                out.append(sql, i, end + 1);
+                i = end + 1;
+            } else if (Character.isDigit(c) && !isIdentifierPart(out)) {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else {
+                out.append(Character.toUpperCase(c));
+                i++;
+            }
+        }
+        return collapseInLists(out.toString());
+    }
+
+    private static boolean isIdentifierPart(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char last = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_';
+    }
+
+    /**
+     * "IN (?, ?, ?)", "IN(?,?)" and "in (?)" all become "IN (?...)" so list length doesn't split
+     * fingerprints. IN has to be a whole word, so MIN(?) and the like are left alone.
+     */
+    private static String collapseInLists(String fingerprint) {
+        int length = fingerprint.length();
+        StringBuilder out = null;
+        int copied = 0;
+        int from = fingerprint.indexOf("IN");
+        while (from >= 0) {
+            int next = from + 2;
+            if (isWordAt(fingerprint, from, 2)) {
+                int open = next < length && fingerprint.charAt(next) == ' ' ? next + 1 : next;
+                if (open < length && fingerprint.charAt(open) == '(') {
+                    int end = open + 1;
+                    boolean placeholders = false;
+                    while (end < length && fingerprint.charAt(end) != ')') {
+                        char c = fingerprint.charAt(end);
+                        if (c == '?') {
+                            placeholders = true;
+                        } else if (c != ',' && c != ' ') {
+                            placeholders = false;
+                            break;
+                        }
+                        end++;
+                    }
+                    if (placeholders && end < length) {
+                        if (out == null) {
+                            out = new StringBuilder(length);
+                        }
+                        out.append(fingerprint, copied, from).append("IN (?...)");
+                        copied = end + 1;
+                        next = end + 1;
+                    }
+                }
+            }
+            from = fingerprint.indexOf("IN", next);
+        }
+        if (out == null) {
+            return fingerprint;
+        }
+        out.append(fingerprint, copied, length);
+        return out.toString();
+    }
+
+    private static boolean isWordAt(String text, int start, int wordLength) {
+        int end = start + wordLength;
+        return (start == 0 || !isIdentifierChar(text.charAt(start - 1)))
+                && (end >= text.length() || !isIdentifierChar(text.charAt(end)));
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '@' || c == '#';
+    }
+}
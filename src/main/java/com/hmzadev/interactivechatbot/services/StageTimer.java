@@ -0,0 +1,68 @@
+package com.hmzadev.interactivechatbot.services;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+/**
+ * Collects how long each stage of one request took. Stages may run on different threads,
+ * so recording is synchronized; the order of first completion is kept for reporting.
+ * Timed stages are also observed as "chat.ask.stage", which gives each one its own trace span.
+ */
+public class StageTimer {
+
+    private final Map<String, Long> durationsNanos = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final ObservationRegistry observationRegistry;
+
+    public StageTimer() {
+        this(ObservationRegistry.NOOP);
+    }
+
+    public StageTimer(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    public <T> T time(String stage, Supplier<T> work) {
+        return Observation.createNotStarted("chat.ask.stage", observationRegistry)
+                .contextualName("ask " + stage)
+                .lowCardinalityKeyValue("stage", stage)
+                .observe(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        return work.get();
+                    } finally {
+                        record(stage, System.nanoTime() - start);
+                    }
+                });
+    }
+
+    public void record(String stage, long nanos) {
+        durationsNanos.merge(stage, nanos, Long::sum);
+    }
+
+    public Map<String, Long> getDurationsNanos() {
+        synchronized (durationsNanos) {
+            return new LinkedHashMap<>(durationsNanos);
+        }
+    }
+
+    public Map<String, Double> getDurationsMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        getDurationsNanos().forEach((stage, nanos) -> millis.put(stage, nanos / 1_000_000.0));
+        return millis;
+    }
+
+    // Formats stage durations as a Server-Timing header value, e.g. "rasa;dur=812.4, sql;dur=35.0"
+    public static String toServerTiming(Map<String, Double> durationsMillis) {
+        StringJoiner header = new StringJoiner(", ");
+        durationsMillis.forEach((stage, millis) ->
+                header.add(stage + ";dur=" + String.format(Locale.ROOT, "%.1f", millis)));
+        return header.toString();
+    }
+}
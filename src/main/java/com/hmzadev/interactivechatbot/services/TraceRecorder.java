@@ -0,0 +1,146 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline span exporter: keeps the most recent spans in memory (served by /admin/traces) and,
+ * when chat.tracing.file is set, appends every span as one JSON line to that file. Spring Boot
+ * registers it behind the OpenTelemetry batch processor, so export never runs on a request thread
+ * and spans are dropped rather than queued without bound when the exporter falls behind.
+ */
+@Component
+public class TraceRecorder implements SpanExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TraceRecorder.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Deque<Map<String, Object>> recentSpans = new ArrayDeque<>();
+    private final int maxRecentSpans;
+    private final BufferedWriter fileWriter;
+
+    public TraceRecorder(@Value("${chat.tracing.recent-spans:2000}") int maxRecentSpans,
+                         @Value("${chat.tracing.file:}") String tracingFile) throws IOException {
+        this.maxRecentSpans = maxRecentSpans;
+        if (tracingFile.isBlank()) {
+            this.fileWriter = null;
+        } else {
+            Path path = Path.of(tracingFile);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.fileWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        List<Map<String, Object>> converted = new ArrayList<>(spans.size());
+        for (SpanData span : spans) {
+            converted.add(toMap(span));
+        }
+        synchronized (recentSpans) {
+            for (Map<String, Object> span : converted) {
+                if (recentSpans.size() == maxRecentSpans) {
+                    recentSpans.removeFirst();
+                }
+                recentSpans.addLast(span);
+            }
+        }
+        if (fileWriter != null) {
+            try {
+                synchronized (fileWriter) {
+                    for (Map<String, Object> span : converted) {
+                        fileWriter.write(objectMapper.writeValueAsString(span));
+                        fileWriter.newLine();
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Could not write spans to the trace file: {}", e.getMessage());
+                return CompletableResultCode.ofFailure();
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    // Most recent spans, newest first, optionally restricted to one trace
+    public List<Map<String, Object>> recent(String traceId, int limit) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        synchronized (recentSpans) {
+            var iterator = recentSpans.descendingIterator();
+            while (iterator.hasNext() && result.size() < limit) {
+                Map<String, Object> span = iterator.next();
+                if (traceId == null || traceId.equals(span.get("traceId"))) {
+                    result.add(span);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        if (fileWriter != null) {
+            try {
+                synchronized (fileWriter) {
+                    fileWriter.flush();
+                }
+            } catch (IOException e) {
+                return CompletableResultCode.ofFailure();
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        if (fileWriter != null) {
+            try {
+                synchronized (fileWriter) {
+                    fileWriter.close();
+                }
+            } catch (IOException e) {
+                return CompletableResultCode.ofFailure();
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private static Map<String, Object> toMap(SpanData span) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("traceId", span.getTraceId());
+        map.put("spanId", span.getSpanId());
+        map.put("parentSpanId", span.getParentSpanId());
+        map.put("name", span.getName());
+        map.put("kind", span.getKind().name());
+        map.put("startEpochNanos", span.getStartEpochNanos());
+        map.put("durationMs", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000_000.0);
+        map.put("status", span.getStatus().getStatusCode().name());
+        map.put("attributes", attributes);
+        return map;
+    }
+}
@@ -12,13 +12,16 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ChatMetrics chatMetrics;
+
     public Optional<User> findByEmail(String email) {
         return Optional.ofNullable(userRepository.findByEmail(email));  // Assuming repository returns User or null
     }
 
 
     public Optional<User> findByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return chatMetrics.time(ChatMetrics.USER_LOOKUP, () -> userRepository.findByUsername(username));
     }
     public User save(User user) {
         return userRepository.save(user);
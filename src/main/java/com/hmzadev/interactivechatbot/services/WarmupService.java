@@ -0,0 +1,151 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmzadev.interactivechatbot.configuration.JwtService;
+import com.hmzadev.interactivechatbot.dao.Role;
+import com.hmzadev.interactivechatbot.dao.SenderType;
+import com.hmzadev.interactivechatbot.dao.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes synthetic traffic through the real code paths (JWT, history read and serialization,
+ * Rasa, SQL) before the instance reports ready. Runners complete before Spring Boot publishes
+ * ReadinessState.ACCEPTING_TRAFFIC, so the readiness probe stays down until warmup is over.
+ * <p>
+ * Each task is timed on its first (cold) and last (warm) iteration under
+ * chat.warmup.task{task, phase}; the whole phase is recorded as chat.warmup.duration.
+ */
+@Service
+public class WarmupService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupService.class);
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private RasaService rasaService;
+
+    @Autowired
+    private DataWarmupTask dataWarmupTask;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chat.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.warmup.iterations:50}")
+    private int iterations;
+
+    @Value("${chat.warmup.max-duration-ms:30000}")
+    private long maxDurationMs;
+
+    // Session whose history is read during warmup (an H2 or sandbox session); -1 only warms the query path
+    @Value("${chat.warmup.session-id:-1}")
+    private long sessionId;
+
+    @Value("${chat.warmup.rasa:true}")
+    private boolean warmRasa;
+
+    @Value("${chat.startup.data-warmup.enabled:false}")
+    private boolean warmData;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+
+        User warmupUser = User.builder()
+                .username("warmup")
+                .password("")
+                .role(Role.USER)
+                .build();
+
+        warm("jwt", deadline, () -> {
+            String token = jwtService.generateToken(warmupUser);
+            jwtService.extractUsername(token);
+            jwtService.isTokenValid(token, warmupUser);
+        });
+        warm("history", deadline, () -> {
+            // Same streaming writer as the history endpoint, minus the bot query replay
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+                ChatHistoryWriter writer = new ChatHistoryWriter(generator, content -> null, sql -> null);
+                writer.writeStart();
+                messageService.streamMessagesBySessionId(sessionId, writer::write);
+                writer.write("warmup", SenderType.BOT, LocalDateTime.now());
+                writer.writeEnd();
+            }
+        });
+        if (warmRasa) {
+            // A single health call: enough to open the connection without loading the NLU model path
+            warm("rasa", deadline, 1, rasaService::ping);
+        }
+        if (warmData) {
+            warm("sql", deadline, 1, dataWarmupTask::run);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        meterRegistry.timer("chat.warmup.duration").record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Warmup finished in {} ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private void warm(String task, long deadline, WarmupStep step) {
+        warm(task, deadline, iterations, step);
+    }
+
+    private void warm(String task, long deadline, int times, WarmupStep step) {
+        Timer cold = meterRegistry.timer("chat.warmup.task", "task", task, "phase", "cold");
+        Timer warm = meterRegistry.timer("chat.warmup.task", "task", task, "phase", "warm");
+        long lastNanos = 0;
+        int done = 0;
+        try {
+            while (done < times && System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                step.run();
+                lastNanos = System.nanoTime() - start;
+                if (done == 0) {
+                    cold.record(lastNanos, TimeUnit.NANOSECONDS);
+                }
+                done++;
+            }
+            if (done > 1) {
+                warm.record(lastNanos, TimeUnit.NANOSECONDS);
+            }
+            logger.info("Warmup '{}': {} iterations, cold {} ms, warm {} ms", task, done,
+                    String.format("%.2f", cold.totalTime(TimeUnit.MILLISECONDS)),
+                    String.format("%.2f", lastNanos / 1_000_000.0));
+        } catch (Exception e) {
+            // Warmup must never keep the instance from starting
+            logger.warn("Warmup '{}' stopped after {} iterations: {}", task, done, e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface WarmupStep {
+        void run() throws Exception;
+    }
+}
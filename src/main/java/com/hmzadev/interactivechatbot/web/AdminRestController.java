@@ -0,0 +1,87 @@
+package com.hmzadev.interactivechatbot.web;
+
+import com.hmzadev.interactivechatbot.services.ChatExportService;
+import com.hmzadev.interactivechatbot.services.QueryMaterializationService;
+import com.hmzadev.interactivechatbot.services.QueryStatisticsService;
+import com.hmzadev.interactivechatbot.services.TraceRecorder;
+import com.hmzadev.interactivechatbot.services.UserService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+// Operational views for administrators; /admin/** requires the ADMIN authority (see SecurityConfig)
+@RestController
+@RequestMapping("/admin")
+public class AdminRestController {
+
+    @Autowired
+    private QueryStatisticsService queryStatisticsService;
+
+    @Autowired
+    private TraceRecorder traceRecorder;
+
+    @Autowired
+    private ChatExportService chatExportService;
+
+    @Autowired
+    private QueryMaterializationService queryMaterializationService;
+
+    @Autowired
+    private UserService userService;
+
+    // Most expensive bot query shapes, e.g. /admin/sql-stats?sortBy=max&limit=10
+    @GetMapping("/sql-stats")
+    public ResponseEntity<List<Map<String, Object>>> getSqlStatistics(@RequestParam(defaultValue = "total") String sortBy,
+                                                                     @RequestParam(defaultValue = "20") int limit) {
+        QueryStatisticsService.SortBy order;
+        try {
+            order = QueryStatisticsService.SortBy.valueOf(sortBy.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(queryStatisticsService.top(order, Math.max(1, Math.min(limit, 500))));
+    }
+
+    @DeleteMapping("/sql-stats")
+    public ResponseEntity<Void> resetSqlStatistics() {
+        queryStatisticsService.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    // Hot queries currently answered from memory, most read first
+    @GetMapping("/materializations")
+    public ResponseEntity<List<Map<String, Object>>> getMaterializations() {
+        return ResponseEntity.ok(queryMaterializationService.describe());
+    }
+
+    // Re-runs every materialized query now, e.g. right after a data load
+    @PostMapping("/materializations/refresh")
+    public ResponseEntity<Void> refreshMaterializations() {
+        queryMaterializationService.refresh();
+        return ResponseEntity.noContent().build();
+    }
+
+    // Recently exported (sampled) spans, newest first; pass traceId to see a single request
+    @GetMapping("/traces")
+    public ResponseEntity<List<Map<String, Object>>> getRecentSpans(@RequestParam(required = false) String traceId,
+                                                                   @RequestParam(defaultValue = "200") int limit) {
+        return ResponseEntity.ok(traceRecorder.recent(traceId, Math.max(1, Math.min(limit, 2000))));
+    }
+
+    // Compliance export of any user's history, same format as /chat-sessions/export
+    @GetMapping("/users/{username}/export")
+    public void exportUserHistory(@PathVariable String username, @RequestParam(defaultValue = "false") boolean gzip,
+                                  HttpServletResponse response) throws IOException {
+        if (userService.findByUsername(username).isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "User not found");
+            return;
+        }
+        ChatSessionRestController.writeExport(chatExportService, username, gzip, response);
+    }
+}
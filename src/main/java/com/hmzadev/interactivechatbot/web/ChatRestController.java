@@ -6,11 +6,11 @@ import com.hmzadev.interactivechatbot.dao.SenderType;
 import com.hmzadev.interactivechatbot.dao.User;
 import com.hmzadev.interactivechatbot.services.ChatSessionService;
 import com.hmzadev.interactivechatbot.services.MessageService;
+import com.hmzadev.interactivechatbot.services.RasaService;
 import com.hmzadev.interactivechatbot.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -20,7 +20,7 @@ import java.util.Optional;
 public class ChatRestController {
 
     @Autowired
-    private RestTemplate restTemplate;
+    private RasaService rasaService;
 
     @Autowired
     private ChatSessionService chatSessionService;
@@ -31,8 +31,6 @@ public class ChatRestController {
     @Autowired
     private UserService userService;
 
-    private final String rasaUrl = "http://localhost:5005/webhooks/rest/webhook";
-
 
     @GetMapping("/ask")
     public ResponseEntity<String> askQuestion(@RequestParam String question, @RequestParam String email) {
@@ -51,7 +49,7 @@ public class ChatRestController {
         }
 
         try {
-            String botResponse = forwardQuestionToRasaBot(question);
+            String botResponse = rasaService.forwardQuestionToRasaBot(question);
             if (botResponse == null) {
                 return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("No response from Rasa bot.");
             }
@@ -79,22 +77,6 @@ public class ChatRestController {
         });
     }
 
-    private String forwardQuestionToRasaBot(String question) {
-        String payload = "{\"sender\": \"user123\", \"message\":\"" + question + "\"}";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        HttpEntity<String> entity = new HttpEntity<>(payload, headers);
-
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(rasaUrl, entity, String.class);
-            return response.getBody();
-        } catch (Exception e) {
-            return null;  // Return null to indicate a failure to communicate with the Rasa bot
-        }
-    }
-
     private void saveBotResponse(ChatSession chatSession, String botResponse) {
         Message message = new Message(chatSession, botResponse, LocalDateTime.now(), SenderType.BOT);
         messageService.saveMessage(message);
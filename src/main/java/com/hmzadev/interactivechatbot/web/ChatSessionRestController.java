@@ -1,30 +1,44 @@
     package com.hmzadev.interactivechatbot.web;
     
-    import com.fasterxml.jackson.databind.JsonNode;
-    import com.fasterxml.jackson.databind.ObjectMapper;
     import com.hmzadev.interactivechatbot.configuration.JwtService;
     import com.hmzadev.interactivechatbot.dao.*;
+    import com.hmzadev.interactivechatbot.services.ChatAskService;
+    import com.hmzadev.interactivechatbot.services.ChatExportService;
+    import com.hmzadev.interactivechatbot.services.ChatHistoryWriter;
+    import com.hmzadev.interactivechatbot.services.ChatSessionCategorizer;
     import com.hmzadev.interactivechatbot.services.ChatSessionService;
+    import com.hmzadev.interactivechatbot.services.DatabaseService;
+    import com.hmzadev.interactivechatbot.services.HotSessionCache;
     import com.hmzadev.interactivechatbot.services.MessageService;
+    import com.hmzadev.interactivechatbot.services.QueryResultSpillService;
+    import com.hmzadev.interactivechatbot.services.RasaService;
+    import com.hmzadev.interactivechatbot.services.ResourceVersionService;
+    import com.hmzadev.interactivechatbot.services.StageTimer;
     import com.hmzadev.interactivechatbot.services.UserService;
+    import com.fasterxml.jackson.core.JsonGenerator;
+    import com.fasterxml.jackson.databind.ObjectMapper;
     import jakarta.servlet.http.HttpServletRequest;
+    import jakarta.servlet.http.HttpServletResponse;
+    import org.slf4j.Logger;
+    import org.slf4j.LoggerFactory;
     import org.springframework.beans.factory.annotation.Autowired;
+    import org.springframework.beans.factory.annotation.Value;
     import org.springframework.http.*;
-    import org.springframework.jdbc.core.JdbcTemplate;
     import org.springframework.web.bind.annotation.*;
-    import org.springframework.web.client.RestTemplate;
+    import org.springframework.web.context.request.WebRequest;
+    import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
     
-    import java.time.DayOfWeek;
+    import java.io.IOException;
     import java.time.LocalDate;
     import java.time.LocalDateTime;
     import java.time.format.DateTimeFormatter;
-    import java.time.temporal.TemporalAdjusters;
     import java.util.*;
-    import java.util.stream.Collectors;
     
     @RestController
     @RequestMapping("/chat-sessions")
     public class ChatSessionRestController {
+        private static final Logger logger = LoggerFactory.getLogger(ChatSessionRestController.class);
+    
         @Autowired
         private ChatSessionService chatSessionService;
     
@@ -38,12 +52,28 @@
         private JwtService jwtService;
     
         @Autowired
-        private RestTemplate restTemplate;
+        private RasaService rasaService;
+    
+        @Autowired
+        private DatabaseService databaseService;
+    
+        @Autowired
+        private ChatAskService chatAskService;
+    
+        @Autowired
+        private ObjectMapper objectMapper;
     
         @Autowired
-        private JdbcTemplate jdbcTemplate;
+        private ResourceVersionService resourceVersionService;
     
-        private final String rasaUrl = "http://localhost:5005/webhooks/rest/webhook";
+        @Autowired
+        private ChatExportService chatExportService;
+    
+        @Autowired
+        private QueryResultSpillService queryResultSpillService;
+    
+        @Value("${chat.ask.retry-after-seconds:1}")
+        private long askRetryAfterSeconds;
     
         // Extract email from JWT token
         private String getUserEmailFromToken(HttpServletRequest request) {
@@ -105,16 +135,15 @@
                     // Create the new chat session in the database
                     chatSession = chatSessionService.createChatSession(chatSession, username);
                 } else {
-                    // If sessionId is provided, look for the session
-                    Optional<ChatSession> chatSessionOpt = chatSessionService.getChatSessionById(sessionId);
-                    if (chatSessionOpt.isEmpty()) {
+                    // If sessionId is provided, check ownership without loading the session
+                    ChatSessionService.Access access = chatSessionService.checkAccess(sessionId, username);
+                    if (access == ChatSessionService.Access.NOT_FOUND) {
                         return ResponseEntity.badRequest().body("Chat session not found");
                     }
-    
-                    chatSession = chatSessionOpt.get();
-                    if (!chatSession.getUser().getUsername().equals(username)) {
+                    if (access == ChatSessionService.Access.FORBIDDEN) {
                         return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not authorized to access this chat session");
                     }
+                    chatSession = chatSessionService.getReference(sessionId);
                 }
     
                 // Add the message to the session
@@ -122,15 +151,16 @@
                 messageService.saveMessage(message);
     
                 // Forward the message to the Rasa bot
-                String botResponse = forwardQuestionToRasaBot(content);
+                String botResponse = rasaService.forwardQuestionToRasaBot(content);
                 if (botResponse == null) {
                     return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("No response from Rasa bot.");
                 }
     
                 // Save the bot response as a message
-                saveBotResponse(chatSession, extractAnswerFromResponse(botResponse));
+                String answer = rasaService.extractAnswerFromResponse(botResponse);
+                saveBotResponse(chatSession, answer);
     
-                return ResponseEntity.ok("Message added successfully. Bot response: " + extractAnswerFromResponse(botResponse));
+                return ResponseEntity.ok("Message added successfully. Bot response: " + answer);
             } catch (Exception e) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                         .body("An unexpected error occurred: " + e.getMessage());
@@ -143,40 +173,31 @@
     
         // Categorize chat sessions by date ranges
         @GetMapping("/categorized")
-        public ResponseEntity<Map<String, List<ChatSession>>> getCategorizedChatSessions(HttpServletRequest request) {
+        public ResponseEntity<Map<String, List<ChatSession>>> getCategorizedChatSessions(HttpServletRequest request,
+                                                                                         WebRequest webRequest) {
             String username = jwtService.getUserUsernameFromToken(request);
             if (username == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
             }
     
             try {
+                // Polling clients get a 304 when none of their sessions changed, but only once the user is
+                // known to exist (usually the principal the JWT filter already loaded)
+                if (chatSessionService.currentUserId(username) != null) {
+                    ResourceVersionService.ResourceVersion version = resourceVersionService.sessionList(username);
+                    if (webRequest.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+                        return null;
+                    }
+                }
+    
                 List<ChatSession> chatSessions = chatSessionService.getChatSessionsByUserUsername(username);
     
                 if (chatSessions.isEmpty()) {
                     return ResponseEntity.noContent().build();
                 }
     
-                LocalDate today = LocalDate.now();
-                LocalDate yesterday = today.minusDays(1);
-                LocalDate startOfWeek = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
-                LocalDate thirtyDaysAgo = today.minusDays(30);
-    
-                Map<String, List<ChatSession>> categorizedSessions = chatSessions.stream()
-                        .collect(Collectors.groupingBy(chatSession -> {
-                            LocalDate createdAt = chatSession.getCreatedAt().toLocalDate();
-    
-                            if (createdAt.equals(today)) {
-                                return "Today";
-                            } else if (createdAt.equals(yesterday)) {
-                                return "Yesterday";
-                            } else if (!createdAt.isBefore(startOfWeek)) {
-                                return "This Week";
-                            } else if (!createdAt.isBefore(thirtyDaysAgo)) {
-                                return "Last 30 Days";
-                            } else {
-                                return "Older";
-                            }
-                        }));
+                Map<String, List<ChatSession>> categorizedSessions =
+                        ChatSessionCategorizer.categorize(chatSessions, LocalDate.now());
     
                 return ResponseEntity.ok(categorizedSessions);
             } catch (Exception e) {
@@ -207,8 +228,10 @@
         }
     
     
+        // Streams the history as it is read: date headers in order, then that date's messages
         @GetMapping("/{sessionId}/messages")
-        public ResponseEntity<Map<String, Object>> getMessagesByChatSession(HttpServletRequest request, @PathVariable Long sessionId) {
+        public ResponseEntity<?> getMessagesByChatSession(HttpServletRequest request, WebRequest webRequest,
+                                                          @PathVariable Long sessionId) {
             String username = jwtService.getUserUsernameFromToken(request);
             if (username == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -216,75 +239,110 @@
             }
     
             try {
-                Optional<ChatSession> chatSessionOpt = chatSessionService.getChatSessionById(sessionId);
-                if (chatSessionOpt.isEmpty()) {
+                // Ownership first (an in-memory lookup), so a tag never answers for someone else's session
+                ChatSessionService.Access access = chatSessionService.checkAccess(sessionId, username);
+                if (access == ChatSessionService.Access.NOT_FOUND) {
                     return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                             .body(Map.of("status", "error", "message", "Chat session not found"));
                 }
-    
-                ChatSession chatSession = chatSessionOpt.get();
-                if (!chatSession.getUser().getUsername().equals(username)) {
+                if (access == ChatSessionService.Access.FORBIDDEN) {
                     return ResponseEntity.status(HttpStatus.FORBIDDEN)
                             .body(Map.of("status", "error", "message", "You are not authorized to access this chat session"));
                 }
     
-                // Retrieve messages for the chat session
-                List<Message> messages = messageService.getMessagesBySessionId(sessionId);
-                if (messages.isEmpty()) {
+                // Read the version before the data: a write racing with this request only costs a refetch
+                ResourceVersionService.ResourceVersion version = resourceVersionService.history(sessionId, username);
+                if (webRequest.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+                    return null;
+                }
+    
+                if (!messageService.hasMessages(sessionId)) {
                     return ResponseEntity.status(HttpStatus.NO_CONTENT)
                             .body(Map.of("status", "success", "message", "No messages found in this session"));
                 }
     
-                Map<LocalDate, List<Object>> messagesByDate = new HashMap<>();
+                StreamingResponseBody body = outputStream -> {
+                    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                        ChatHistoryWriter writer = new ChatHistoryWriter(generator,
+                                rasaService::extractAnswerFromResponse, databaseService::executeBotQuery);
+                        writer.writeStart();
+                        messageService.streamMessagesBySessionId(sessionId, writer::write);
+                        writer.writeEnd();
+                    }
+                };
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(Map.of("status", "error", "message", "An unexpected error occurred: " + e.getMessage()));
+            }
+        }
     
-                for (Message message : messages) {
-                    LocalDate messageDate = message.getTimestamp().toLocalDate();
     
-                    // Ensure messages are grouped by date
-                    if (!messagesByDate.containsKey(messageDate)) {
-                        messagesByDate.put(messageDate, new ArrayList<>());
-                    }
     
-                    // Add user or bot message
-                    Map<String, Object> messageMap = new HashMap<>();
-                    messageMap.put("content", message.getContent());
-                    messageMap.put("sender", message.getSender().name());
-                    messageMap.put("timestamp", message.getTimestamp().toString());
-    
-                    // If it's a bot message, attempt to extract and execute the query
-                    if (message.getSender() == SenderType.BOT) {
-                        String sqlQuery = extractAnswerFromResponse(message.getContent());
-                        if (sqlQuery != null && !sqlQuery.isEmpty()) {
-                            List<Map<String, Object>> queryResult = executeQuery(sqlQuery);
-                            messageMap.put("queryResult", queryResult != null ? queryResult : "No data returned from query");
-                        }
-                    }
     
-                    // Add the message to the date group
-                    messagesByDate.get(messageDate).add(messageMap);
-                }
     
-                // Prepare response structure with grouped messages
-                List<Object> messageList = new ArrayList<>();
-                for (Map.Entry<LocalDate, List<Object>> entry : messagesByDate.entrySet()) {
-                    Map<String, Object> dateLabel = new HashMap<>();
-                    dateLabel.put("date", entry.getKey().toString());
-                    messageList.add(dateLabel);  // Add date label
+        // The caller's whole history as NDJSON, streamed from the database without re-running bot
+        // queries; gzip=true returns a compressed .ndjson.gz download instead. Written on the request
+        // thread rather than as a StreamingResponseBody so large exports are not cut by the async timeout.
+        @GetMapping("/export")
+        public void exportChatHistory(HttpServletRequest request, HttpServletResponse response,
+                                      @RequestParam(defaultValue = "false") boolean gzip) throws IOException {
+            String username = jwtService.getUserUsernameFromToken(request);
+            if (username == null) {
+                response.sendError(HttpStatus.UNAUTHORIZED.value(), "Unauthorized");
+                return;
+            }
+            writeExport(chatExportService, username, gzip, response);
+        }
+    
+        static void writeExport(ChatExportService chatExportService, String username, boolean gzip,
+                                HttpServletResponse response) throws IOException {
+            String fileName = "chat-export-" + username.replaceAll("[^A-Za-z0-9._-]", "_") + (gzip ? ".ndjson.gz" : ".ndjson");
+            response.setContentType(gzip ? "application/gzip" : MediaType.APPLICATION_NDJSON_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString());
+            chatExportService.export(username, response.getOutputStream(), gzip);
+        }
     
-                    messageList.addAll(entry.getValue());  // Add messages for this date
+        // Latest page of a session for the chat view, served from the hot-session cache. Bot queries
+        // are not re-run here; the full history endpoint does that.
+        @GetMapping("/{sessionId}/messages/latest")
+        public ResponseEntity<?> getLatestMessages(HttpServletRequest request, @PathVariable Long sessionId,
+                                                   @RequestParam(defaultValue = "20") int limit) {
+            String username = jwtService.getUserUsernameFromToken(request);
+            if (username == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("status", "error", "message", "Unauthorized"));
+            }
+    
+            try {
+                ChatSessionService.Access access = chatSessionService.checkAccess(sessionId, username);
+                if (access == ChatSessionService.Access.NOT_FOUND) {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(Map.of("status", "error", "message", "Chat session not found"));
+                }
+                if (access == ChatSessionService.Access.FORBIDDEN) {
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                            .body(Map.of("status", "error", "message", "You are not authorized to access this chat session"));
                 }
     
-                return ResponseEntity.ok(Map.of("status", "success", "messages", messageList));
+                List<HotSessionCache.CachedMessage> messages = messageService.getLatestMessages(sessionId, Math.max(1, limit));
+                StreamingResponseBody body = outputStream -> {
+                    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                        ChatHistoryWriter writer = new ChatHistoryWriter(generator, content -> null, sql -> null);
+                        writer.writeStart();
+                        for (HotSessionCache.CachedMessage message : messages) {
+                            writer.write(message.content(), message.sender(), message.timestamp());
+                        }
+                        writer.writeEnd();
+                    }
+                };
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
             } catch (Exception e) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                         .body(Map.of("status", "error", "message", "An unexpected error occurred: " + e.getMessage()));
             }
         }
     
-    
-    
-    
-    
         @GetMapping("/ask")
         public ResponseEntity<?> askQuestion(HttpServletRequest request, @RequestParam String question,
                                              @RequestParam(required = false) Long sessionId) {
@@ -298,117 +356,85 @@
             }
     
             try {
-                User user = userService.findByUsername(username).orElse(null);
-                if (user == null) {
-                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found.");
+                AskResult result = chatAskService.ask(username, sessionId, question);
+                HttpStatus status = HttpStatus.OK;
+                Object body;
+                switch (result.getStatus()) {
+                    case USER_NOT_FOUND:
+                        status = HttpStatus.NOT_FOUND;
+                        body = "User not found.";
+                        break;
+                    case FORBIDDEN:
+                        status = HttpStatus.FORBIDDEN;
+                        body = "You are not authorized to access this chat session";
+                        break;
+                    case RASA_UNAVAILABLE:
+                        status = HttpStatus.SERVICE_UNAVAILABLE;
+                        body = "No response from Rasa bot.";
+                        break;
+                    case EXTRACTION_FAILED:
+                        status = HttpStatus.INTERNAL_SERVER_ERROR;
+                        body = "Failed to extract SQL query from bot response.";
+                        break;
+                    case OVERLOADED:
+                        status = HttpStatus.SERVICE_UNAVAILABLE;
+                        body = "Server is busy, please retry later";
+                        break;
+                    case TIMEOUT:
+                        status = HttpStatus.SERVICE_UNAVAILABLE;
+                        body = "The request timed out, please retry later";
+                        break;
+                    case NO_DATA:
+                        body = "Query executed successfully, but no data was returned.";
+                        break;
+                    default:
+                        // Return the result to the frontend for table formatting
+                        body = result.getQueryResult();
                 }
-    
-                // Step 1: Retrieve the chat session by ID if provided
-                ChatSession chatSession = null;
-                if (sessionId != null) {
-                    Optional<ChatSession> chatSessionOpt = chatSessionService.getChatSessionById(sessionId);
-                    if (chatSessionOpt.isEmpty() || !chatSessionOpt.get().getUser().getUsername().equals(username)) {
-                        return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to access this chat session");
-                    }
-                    chatSession = chatSessionOpt.get();
-                } else {
-                    // If no sessionId is provided, you may want to create a new session or handle accordingly
-                    chatSession = getOrCreateChatSession(user, username, null);
+                // Per-stage durations, visible in the browser's network panel
+                ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                        .header("Server-Timing", StageTimer.toServerTiming(result.getStageTimings()));
+                if (result.getStatus() == AskResult.Status.OVERLOADED || result.getStatus() == AskResult.Status.TIMEOUT) {
+                    response.header(HttpHeaders.RETRY_AFTER, String.valueOf(askRetryAfterSeconds));
                 }
-    
-                // Step 2: Save the user's question as a message in the chat session
-                Message userMessage = new Message(chatSession, question, LocalDateTime.now(), SenderType.USER);
-                messageService.saveMessage(userMessage);
-    
-                // Step 3: Forward the user's question to Rasa bot and get the SQL query
-                String botResponse = forwardQuestionToRasaBot(question);
-                if (botResponse == null) {
-                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("No response from Rasa bot.");
+                if (result.getResultAsOf() != null) {
+                    // Answered from a materialized hot query: tell the client how fresh the data is
+                    response.header("X-Result-As-Of", result.getResultAsOf().toString());
                 }
-    
-                // Step 4: Extract the SQL query from the Rasa bot response
-                String sqlQuery = extractAnswerFromResponse(botResponse);
-                if (sqlQuery == null) {
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to extract SQL query from bot response.");
+                if (result.getResultHandle() != null) {
+                    // Body is the first page only; the rest is read through /results/{handle}
+                    response.header("X-Result-Handle", result.getResultHandle())
+                            .header("X-Result-Total-Rows", String.valueOf(result.getTotalRows()));
                 }
-    
-                // Step 5: Execute the SQL query and retrieve the result
-                List<Map<String, Object>> queryResult = executeQuery(sqlQuery);
-                if (queryResult == null || queryResult.isEmpty()) {
-                    return ResponseEntity.ok("Query executed successfully, but no data was returned.");
-                }
-    
-                // Step 6: Save the bot's response as a message in the chat session
-                saveBotResponse(chatSession, botResponse);
-    
-                // Step 7: Return the result to the frontend for table formatting
-                return ResponseEntity.ok(queryResult); // Frontend will format the JSON result into a table
+                return response.body(body);
             } catch (Exception e) {
+                // Logged here only: exception text can carry SQL or connection details
+                logger.error("Ask failed for user {}", username, e);
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body("An unexpected error occurred: " + e.getMessage());
-            }
-        }
-
-        public List<Map<String, Object>> executeQuery(String sqlQuery) {
-            try {
-                // Execute the query and return the result as a list of key-value pairs (column name -> value)
-                return jdbcTemplate.queryForList(sqlQuery);
-            } catch (Exception e) {
-                e.printStackTrace(); // Log the exception for debugging
-                return null; // Return null or handle error appropriately
+                        .body("An unexpected error occurred.");
             }
         }
     
-        private String extractAnswerFromResponse(String botResponse) {
-            // Parse the JSON response to extract the SQL query
-            try {
-                ObjectMapper objectMapper = new ObjectMapper();
-                JsonNode responseNode = objectMapper.readTree(botResponse);
-                if (responseNode.isArray() && responseNode.size() > 0) {
-                    // Assuming the answer is in the 'text' field of the first object
-                    JsonNode firstResponse = responseNode.get(0);
-                    String fullResponseText = firstResponse.get("text").asText();
-                    // Extract the SQL query from the response
-                    // You can customize the regex as needed to match your specific response format
-                    String sqlQuery = fullResponseText.replaceAll(".*?query: (.+)", "$1").trim();
-                    return sqlQuery;  // Return just the SQL query
-                }
-            } catch (Exception e) {
-                e.printStackTrace(); // Log the error for debugging
+        // Random-access page of a result spilled by /ask. Handles expire a while after their last read.
+        @GetMapping("/results/{handle}")
+        public ResponseEntity<?> getResultPage(HttpServletRequest request, @PathVariable String handle,
+                                               @RequestParam(defaultValue = "0") long offset,
+                                               @RequestParam(defaultValue = "500") int limit) {
+            String username = jwtService.getUserUsernameFromToken(request);
+            if (username == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized");
             }
-            return null; // Return null if unable to extract answer
-        }
-    
-    
-    
-        private ChatSession getOrCreateChatSession(User user, String username, String sessionName) {
-            Optional<ChatSession> existingSession = chatSessionService.getChatSessionsByUserUsername(username)
-                    .stream()
-                    .findFirst();
-    
-            return existingSession.orElseGet(() -> {
-                ChatSession newSession = new ChatSession();
-                newSession.setUser(user);
-                newSession.setCreatedAt(LocalDateTime.now());
-                newSession.setName(sessionName != null ? sessionName : "New Session");
-                return chatSessionService.createChatSession(newSession, username);
-            });
-        }
-    
-        private String forwardQuestionToRasaBot(String question) {
-            String payload = "{\"sender\": \"user123\", \"message\":\"" + question + "\"}";
-    
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-    
-            HttpEntity<String> entity = new HttpEntity<>(payload, headers);
-    
-            try {
-                ResponseEntity<String> response = restTemplate.postForEntity(rasaUrl, entity, String.class);
-                return response.getBody();
-            } catch (Exception e) {
-                return null;  // Return null to indicate a failure to communicate with the Rasa bot
+            if (offset < 0) {
+                return ResponseEntity.badRequest().body("Offset cannot be negative.");
             }
+    
+            // Unknown, expired and other users' handles all look the same to the caller
+            return queryResultSpillService.page(handle, username, offset, Math.max(1, Math.min(limit, 5000)))
+                    .<ResponseEntity<?>>map(page -> ResponseEntity.ok()
+                            .header("X-Result-Total-Rows", String.valueOf(page.totalRows()))
+                            .header("X-Result-Truncated", String.valueOf(page.truncated()))
+                            .body(page.rows()))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Result not found or expired."));
         }
     
         private void saveBotResponse(ChatSession chatSession, String botResponse) {
@@ -0,0 +1,175 @@
+package com.hmzadev.interactivechatbot.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmzadev.interactivechatbot.configuration.JwtHandshakeInterceptor;
+import com.hmzadev.interactivechatbot.dao.AskResult;
+import com.hmzadev.interactivechatbot.dao.Role;
+import com.hmzadev.interactivechatbot.services.ChatAskService;
+import com.hmzadev.interactivechatbot.services.RateLimitService;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * WebSocket channel for one chat session (/ws/chat-sessions/{sessionId}).
+ * Clients send {"content": "..."}; the server pushes, in order:
+ * {"type":"bot", ...} as soon as Rasa answers, then {"type":"result", ...} once the query has run,
+ * or {"type":"error", ...}. Outbound messages go through a bounded buffer per connection, and a
+ * client that cannot keep up is disconnected instead of growing the buffer.
+ */
+@Component
+public class ChatWebSocketHandler extends TextWebSocketHandler implements SubProtocolCapable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatWebSocketHandler.class);
+
+    private final ChatAskService chatAskService;
+    private final RateLimitService rateLimitService;
+    private final AsyncTaskExecutor chatRequestExecutor;
+    private final ObjectMapper objectMapper;
+    private final int sendTimeLimitMs;
+    private final int bufferSizeLimit;
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    public ChatWebSocketHandler(ChatAskService chatAskService,
+                                RateLimitService rateLimitService,
+                                @Qualifier("chatRequestExecutor") AsyncTaskExecutor chatRequestExecutor,
+                                ObjectMapper objectMapper,
+                                @Value("${chat.websocket.send-time-limit-ms:10000}") int sendTimeLimitMs,
+                                @Value("${chat.websocket.buffer-size-limit:524288}") int bufferSizeLimit) {
+        this.chatAskService = chatAskService;
+        this.rateLimitService = rateLimitService;
+        this.chatRequestExecutor = chatRequestExecutor;
+        this.objectMapper = objectMapper;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.bufferSizeLimit = bufferSizeLimit;
+    }
+
+    @Override
+    public void afterConnectionEstablished(@NonNull WebSocketSession session) {
+        sessions.put(session.getId(), new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, bufferSizeLimit,
+                ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE));
+    }
+
+    @Override
+    protected void handleTextMessage(@NonNull WebSocketSession session, @NonNull TextMessage message) throws Exception {
+        WebSocketSession outbound = sessions.get(session.getId());
+        if (outbound == null) {
+            return;
+        }
+
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(message.getPayload());
+        } catch (JsonProcessingException e) {
+            // A bad frame is the client's problem; the connection stays usable
+            send(outbound, error(400, "Malformed message: expected {\"content\": \"...\"}"));
+            return;
+        }
+        String content = payload.path("content").asText("");
+        if (content.isEmpty()) {
+            send(outbound, error(400, "Question cannot be empty."));
+            return;
+        }
+
+        String username = (String) session.getAttributes().get(JwtHandshakeInterceptor.USERNAME_ATTRIBUTE);
+        Role role = (Role) session.getAttributes().get(JwtHandshakeInterceptor.ROLE_ATTRIBUTE);
+        Long chatSessionId = (Long) session.getAttributes().get(JwtHandshakeInterceptor.SESSION_ID_ATTRIBUTE);
+
+        if (!rateLimitService.tryAcquire("user:" + username, role, RateLimitService.BucketType.QUESTIONS).allowed()) {
+            send(outbound, error(429, "Too many requests"));
+            return;
+        }
+
+        // Keep the WebSocket container thread free while Rasa and the database work
+        try {
+            chatRequestExecutor.execute(() -> answer(outbound, username, chatSessionId, content));
+        } catch (RejectedExecutionException e) {
+            send(outbound, error(503, "Server is busy, please retry later"));
+        }
+    }
+
+    private void answer(WebSocketSession outbound, String username, Long chatSessionId, String content) {
+        try {
+            AskResult result = chatAskService.ask(username, chatSessionId, content,
+                    new ChatAskService.AskListener() {
+                        @Override
+                        public void onBotResponse(Long sessionId, String botResponse, String sqlQuery) {
+                            Map<String, Object> bot = new LinkedHashMap<>();
+                            bot.put("type", "bot");
+                            bot.put("content", botResponse);
+                            bot.put("query", sqlQuery);
+                            send(outbound, bot);
+                        }
+                    });
+
+            switch (result.getStatus()) {
+                case USER_NOT_FOUND -> send(outbound, error(404, "User not found."));
+                case FORBIDDEN -> send(outbound, error(403, "You are not authorized to access this chat session"));
+                case RASA_UNAVAILABLE -> send(outbound, error(503, "No response from Rasa bot."));
+                case EXTRACTION_FAILED -> send(outbound, error(500, "Failed to extract SQL query from bot response."));
+                case OVERLOADED -> send(outbound, error(503, "Server is busy, please retry later"));
+                case TIMEOUT -> send(outbound, error(503, "The request timed out, please retry later"));
+                default -> {
+                    Map<String, Object> rows = new LinkedHashMap<>();
+                    rows.put("type", "result");
+                    rows.put("rows", result.getQueryResult() != null ? result.getQueryResult() : List.of());
+                    rows.put("timings", result.getStageTimings());
+                    send(outbound, rows);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Ask failed for user {}", username, e);
+            send(outbound, error(500, "An unexpected error occurred."));
+        }
+    }
+
+    private Map<String, Object> error(int status, String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("type", "error");
+        error.put("status", status);
+        error.put("message", message);
+        return error;
+    }
+
+    private void send(WebSocketSession outbound, Map<String, Object> body) {
+        if (!outbound.isOpen()) {
+            return;
+        }
+        try {
+            outbound.sendMessage(new TextMessage(objectMapper.writeValueAsString(body)));
+        } catch (Exception e) {
+            // Buffer overflow or send timeout: the decorator has already closed the slow connection
+            logger.warn("Dropping message for WebSocket session {}: {}", outbound.getId(), e.getMessage());
+        }
+    }
+
+    // Echoed back when the JWT arrives as the "bearer" subprotocol (see JwtHandshakeInterceptor)
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(JwtHandshakeInterceptor.BEARER_SUBPROTOCOL);
+    }
+
+    @Override
+    public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus status) {
+        sessions.remove(session.getId());
+    }
+}
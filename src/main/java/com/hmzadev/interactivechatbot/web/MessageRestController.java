@@ -14,7 +14,6 @@
 
     import java.time.LocalDateTime;
     import java.util.List;
-    import java.util.Optional;
 
     @RestController
     @RequestMapping("/messages")
@@ -40,17 +39,16 @@
             }
 
             try {
-                Optional<ChatSession> chatSessionOpt = chatSessionService.getChatSessionById(chatSessionId);
-                if (chatSessionOpt.isEmpty()) {
+                ChatSessionService.Access access = chatSessionService.checkAccess(chatSessionId, username);
+                if (access == ChatSessionService.Access.NOT_FOUND) {
                     return ResponseEntity.badRequest().body("Chat session not found");
                 }
-
-                ChatSession chatSession = chatSessionOpt.get();
                 // Ensure the user has access to the chat session (optional step)
-                if (!chatSession.getUser().getUsername().equals(username)) {
+                if (access == ChatSessionService.Access.FORBIDDEN) {
                     return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not authorized to access this chat session");
                 }
 
+                ChatSession chatSession = chatSessionService.getReference(chatSessionId);
                 Message message = new Message(chatSession, content, LocalDateTime.now(), SenderType.USER);
                 messageService.saveMessage(message);
 
@@ -0,0 +1,102 @@
+package com.hmzadev.interactivechatbot.web;
+
+import com.hmzadev.interactivechatbot.configuration.JwtService;
+import com.hmzadev.interactivechatbot.dao.SenderType;
+import com.hmzadev.interactivechatbot.services.RasaService;
+import com.hmzadev.interactivechatbot.services.ReactiveChatService;
+import com.hmzadev.interactivechatbot.services.ResourceVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Reactive mirror of the ask / add-message endpoints in ChatSessionRestController. Nothing here
+ * blocks a request thread: Rasa is called through WebClient and the database through R2DBC,
+ * and query rows are streamed as NDJSON with backpressure from the HTTP response to the cursor.
+ */
+@RestController
+@RequestMapping("/reactive/chat-sessions")
+@ConditionalOnProperty(name = "chat.reactive.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReactiveChatSessionRestController {
+
+    private final ReactiveChatService reactiveChatService;
+    private final RasaService rasaService;
+    private final JwtService jwtService;
+    private final ResourceVersionService resourceVersionService;
+
+    @PostMapping("/messages/add")
+    public Mono<ResponseEntity<String>> addMessageToChatSession(HttpServletRequest request,
+                                                                @RequestParam(required = false) Long sessionId,
+                                                                @RequestParam String content) {
+        String username = jwtService.getUserUsernameFromToken(request);
+        if (username == null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized"));
+        }
+
+        Mono<Long> chatSessionId = sessionId == null
+                ? reactiveChatService.findUserId(username)
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found")))
+                        .flatMap(reactiveChatService::createGeneratedChatSession)
+                        .doOnNext(id -> resourceVersionService.sessionListChanged(username))
+                : reactiveChatService.findOwnedSessionId(sessionId, username)
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN,
+                                "Not authorized to access this chat session")));
+
+        return chatSessionId
+                .flatMap(id -> reactiveChatService.saveMessage(id, content, SenderType.USER)
+                        .then(rasaService.forwardQuestionToRasaBotReactive(content))
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                                "No response from Rasa bot.")))
+                        .flatMap(botResponse -> {
+                            String answer = rasaService.extractAnswerFromResponse(botResponse);
+                            return reactiveChatService.saveMessage(id, answer, SenderType.BOT)
+                                    .thenReturn(ResponseEntity.ok("Message added successfully. Bot response: " + answer));
+                        }))
+                .onErrorResume(ResponseStatusException.class, e -> Mono.just(
+                        ResponseEntity.status(e.getStatusCode()).body(e.getReason())));
+    }
+
+    @GetMapping(value = "/ask", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Map<String, Object>> askQuestion(HttpServletRequest request, @RequestParam String question,
+                                                 @RequestParam(required = false) Long sessionId) {
+        String username = jwtService.getUserUsernameFromToken(request);
+        if (username == null) {
+            return Flux.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
+        }
+        if (question.isEmpty()) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Question cannot be empty."));
+        }
+
+        Mono<Long> chatSessionId = sessionId == null
+                ? reactiveChatService.findUserId(username)
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found.")))
+                        .flatMap(userId -> reactiveChatService.getOrCreateChatSession(userId, "New Session"))
+                        .doOnNext(id -> resourceVersionService.sessionListChanged(username))
+                : reactiveChatService.findOwnedSessionId(sessionId, username)
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN,
+                                "You are not authorized to access this chat session")));
+
+        return chatSessionId.flatMapMany(id -> reactiveChatService.saveMessage(id, question, SenderType.USER)
+                .then(rasaService.forwardQuestionToRasaBotReactive(question))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "No response from Rasa bot.")))
+                .flatMapMany(botResponse -> {
+                    String sqlQuery = rasaService.extractAnswerFromResponse(botResponse);
+                    if (sqlQuery == null) {
+                        return Flux.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                                "Failed to extract SQL query from bot response."));
+                    }
+                    return reactiveChatService.answer(id, botResponse, sqlQuery);
+                }));
+    }
+}
@@ -0,0 +1,64 @@
+package com.hmzadev.interactivechatbot.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmzadev.interactivechatbot.dao.Message;
+import com.hmzadev.interactivechatbot.dao.SenderType;
+import com.hmzadev.interactivechatbot.services.ChatHistoryWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatHistoryWriterBenchmark {
+
+    @Param({"20", "200", "2000"})
+    private int messageCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Message> messages;
+
+    // Stand-ins for Rasa extraction and the bot query so only grouping and writing is measured
+    private final Function<String, String> extractor = content -> "SELECT * FROM data";
+    private final Function<String, List<Map<String, Object>>> executor = sql -> List.of(
+            Map.of("region", "North", "total", 1250),
+            Map.of("region", "South", "total", 980));
+
+    @Setup
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.of(2024, 6, 1, 9, 0);
+        messages = new ArrayList<>(messageCount);
+        for (int i = 0; i < messageCount; i++) {
+            SenderType sender = i % 2 == 0 ? SenderType.USER : SenderType.BOT;
+            String content = sender == SenderType.USER
+                    ? "Show me the totals per region for week " + i
+                    : "[{\"recipient_id\":\"user123\",\"text\":\"Here is the query: SELECT * FROM data\"}]";
+            // Roughly ten messages per day
+            messages.add(new Message(null, content, start.plusMinutes(i * 144L), sender));
+        }
+    }
+
+    @Benchmark
+    public void writeHistory() throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            ChatHistoryWriter writer = new ChatHistoryWriter(generator, extractor, executor);
+            writer.writeStart();
+            for (Message message : messages) {
+                writer.write(message.getContent(), message.getSender(), message.getTimestamp());
+            }
+            writer.writeEnd();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.hmzadev.interactivechatbot.benchmarks;
+
+import com.hmzadev.interactivechatbot.dao.ChatSession;
+import com.hmzadev.interactivechatbot.services.ChatSessionCategorizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatSessionCategorizerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int sessions;
+
+    private List<ChatSession> chatSessions;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        today = LocalDate.of(2024, 6, 12);
+        LocalDateTime now = today.atTime(12, 0);
+        Random random = new Random(42);
+        chatSessions = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            ChatSession chatSession = new ChatSession();
+            chatSession.setId((long) i);
+            chatSession.setName("Session " + i);
+            // Spread over the last 90 days so every bucket gets some sessions
+            chatSession.setCreatedAt(now.minusDays(random.nextInt(90)).minusMinutes(random.nextInt(600)));
+            chatSessions.add(chatSession);
+        }
+    }
+
+    @Benchmark
+    public Map<String, List<ChatSession>> categorize() {
+        return ChatSessionCategorizer.categorize(chatSessions, today);
+    }
+}
@@ -0,0 +1,62 @@
+package com.hmzadev.interactivechatbot.benchmarks;
+
+import com.hmzadev.interactivechatbot.configuration.JwtService;
+import com.hmzadev.interactivechatbot.dao.Role;
+import com.hmzadev.interactivechatbot.dao.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() {
+        // JwtService prints keys and tokens on every call; keep console I/O out of the measurement
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", "vNgcYtUjtXtt6cWrpMXRTJREEKn2JujTw+O22HuBREc=");
+        ReflectionTestUtils.setField(jwtService, "refreshSecretKey", "GAMyhO0qssYezrBtR6maM3VRYbCkOxMLXfSUjDvgpho=");
+        user = User.builder()
+                .username("bench-user")
+                .password("")
+                .role(Role.USER)
+                .build();
+        token = jwtService.generateToken(user);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+}
@@ -0,0 +1,51 @@
+package com.hmzadev.interactivechatbot.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryResultSerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int rows;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Map<String, Object>> queryResult;
+
+    @Setup
+    public void setUp() {
+        // Same shape JdbcTemplate.queryForList returns for the data table
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        queryResult = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", (long) i);
+            row.put("region", i % 4 == 0 ? "North" : i % 4 == 1 ? "South" : i % 4 == 2 ? "East" : "West");
+            row.put("product", "Product " + (i % 50));
+            row.put("amount", BigDecimal.valueOf(i * 37L % 100_000, 2));
+            row.put("quantity", i % 17);
+            row.put("sale_date", Timestamp.valueOf(base.plusHours(i)));
+            queryResult.add(row);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeQueryResult() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(Map.of("status", "success", "queryResult", queryResult));
+    }
+}
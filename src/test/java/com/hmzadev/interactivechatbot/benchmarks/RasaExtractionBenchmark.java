@@ -0,0 +1,48 @@
+package com.hmzadev.interactivechatbot.benchmarks;
+
+import com.hmzadev.interactivechatbot.services.ChatMetrics;
+import com.hmzadev.interactivechatbot.services.RasaService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RasaExtractionBenchmark {
+
+    private static final String SHORT_RESPONSE =
+            "[{\"recipient_id\":\"user123\",\"text\":\"Here is the query: SELECT * FROM data WHERE region = 'North'\"}]";
+
+    private static final String LONG_RESPONSE =
+            "[{\"recipient_id\":\"user123\",\"text\":\"I looked at the sales table and the regions you mentioned. "
+                    + "Here is the query: SELECT region, product, SUM(amount) AS total FROM data "
+                    + "WHERE sale_date >= '2024-01-01' AND region IN ('North', 'South', 'East', 'West') "
+                    + "GROUP BY region, product ORDER BY total DESC\"},"
+                    + "{\"recipient_id\":\"user123\",\"text\":\"Let me know if you need anything else.\"}]";
+
+    private RasaService rasaService;
+
+    @Setup
+    public void setUp() {
+        rasaService = new RasaService(new RestTemplate(), WebClient.builder(),
+                new ChatMetrics(new SimpleMeterRegistry()),
+                "http://localhost:5005/webhooks/rest/webhook", "http://localhost:5005/");
+    }
+
+    @Benchmark
+    public String extractShortResponse() {
+        return rasaService.extractAnswerFromResponse(SHORT_RESPONSE);
+    }
+
+    @Benchmark
+    public String extractLongResponse() {
+        return rasaService.extractAnswerFromResponse(LONG_RESPONSE);
+    }
+}
@@ -0,0 +1,313 @@
+package com.hmzadev.interactivechatbot.datagen;
+
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates users, chat sessions and messages at production-like volumes and bulk-inserts them
+ * with JDBC batches into the application's schema (users, chat_sessions, messages), which must
+ * already exist. Works against H2 and SQL Server; for SQL Server the batches go through the
+ * driver's bulk-copy path (useBulkCopyForBatchInsert).
+ * <p>
+ * Sessions per user and messages per session follow a Zipf distribution, so a few users and
+ * sessions are much larger than the rest, as in production. Every synthetic user can log in
+ * with {@link #PASSWORD}.
+ * <p>
+ * Standalone: mvn -Pdatagen -DskipTests verify -Ddatagen.url=... (see Spec.fromSystemProperties
+ * for the other datagen.* properties). Load tests call {@link #load(DataSource, Spec)} directly.
+ */
+public class SyntheticDataLoader {
+
+    public static final String PASSWORD = "synthetic-password";
+
+    private static final String[] QUESTIONS = {
+            "What were the total sales per region last month?",
+            "Show me the top 10 products by revenue",
+            "How many orders did we ship from the North warehouse?",
+            "Compare this quarter with the previous one",
+            "Which customers spent more than 1000 in March?",
+            "List the products with quantity below 5",
+            "What is the average order amount per region?",
+            "Give me the daily sales for the last week"
+    };
+
+    private static final String[] BOT_QUERIES = {
+            "SELECT region, SUM(amount) AS total FROM data GROUP BY region",
+            "SELECT TOP 10 product, SUM(amount) AS revenue FROM data GROUP BY product ORDER BY revenue DESC",
+            "SELECT COUNT(*) FROM data WHERE region = 'North'",
+            "SELECT product, quantity FROM data WHERE quantity < 5",
+            "SELECT region, AVG(amount) AS average FROM data GROUP BY region",
+            "SELECT CAST(sale_date AS DATE) AS day, SUM(amount) FROM data GROUP BY CAST(sale_date AS DATE)"
+    };
+
+    /**
+     * @param users                  number of users to create
+     * @param meanSessionsPerUser    average sessions per user
+     * @param meanMessagesPerSession average messages per session
+     * @param maxMessagesPerSession  cap for the largest sessions
+     * @param skew                   Zipf exponent; 0 spreads evenly, around 1 gives a heavy head
+     * @param months                 how far back session start dates go
+     * @param botRatio               share of messages sent by the bot (at most 0.5: the bot only answers)
+     * @param batchSize              rows per JDBC batch
+     * @param seed                   random seed for the sizes, contents and time offsets; names carry a
+     *                               random per-run id and dates are relative to the load time, so two
+     *                               loads have the same shape but are not identical
+     */
+    public record Spec(int users, int meanSessionsPerUser, int meanMessagesPerSession, int maxMessagesPerSession,
+                       double skew, int months, double botRatio, int batchSize, long seed) {
+
+        public static Spec fromSystemProperties(String prefix) {
+            return new Spec(
+                    Integer.getInteger(prefix + "users", 100),
+                    Integer.getInteger(prefix + "sessions-per-user", 200),
+                    Integer.getInteger(prefix + "messages-per-session", 50),
+                    Integer.getInteger(prefix + "max-messages-per-session", 50_000),
+                    Double.parseDouble(System.getProperty(prefix + "skew", "1.0")),
+                    Integer.getInteger(prefix + "months", 12),
+                    Double.parseDouble(System.getProperty(prefix + "bot-ratio", "0.5")),
+                    Integer.getInteger(prefix + "batch-size", 5000),
+                    Long.getLong(prefix + "seed", 42L));
+        }
+    }
+
+    // The largest session of each user is the interesting one for history and export runs
+    public record SyntheticUser(String username, long busiestSessionId, int sessions, long messages) {
+    }
+
+    public record Summary(List<SyntheticUser> users, long sessions, long messages, long elapsedNanos) {
+
+        public double rowsPerSecond() {
+            return (users.size() + sessions + messages) / (elapsedNanos / 1e9);
+        }
+    }
+
+    private final Spec spec;
+    private final Random random;
+    // Keeps repeated loads into the same database apart; not derived from the seed for that reason
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+
+    private SyntheticDataLoader(Spec spec) {
+        this.spec = spec;
+        this.random = new Random(spec.seed());
+    }
+
+    public static Summary load(DataSource dataSource, Spec spec) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return new SyntheticDataLoader(spec).run(connection);
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        String url = System.getProperty("datagen.url", "jdbc:h2:file:./target/datagen;MODE=MSSQLServer");
+        if (url.startsWith("jdbc:sqlserver:") && !url.contains("useBulkCopyForBatchInsert")) {
+            url = url + (url.endsWith(";") ? "" : ";") + "useBulkCopyForBatchInsert=true";
+        }
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+                System.getProperty("datagen.username", "sa"), System.getProperty("datagen.password", ""));
+
+        Summary summary = load(dataSource, Spec.fromSystemProperties("datagen."));
+        System.out.printf("Loaded %d users, %d sessions, %d messages in %d ms (%.0f rows/s)%n",
+                summary.users().size(), summary.sessions(), summary.messages(),
+                TimeUnit.NANOSECONDS.toMillis(summary.elapsedNanos()), summary.rowsPerSecond());
+    }
+
+    private Summary run(Connection connection) throws SQLException {
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            int[] sessionsPerUser = zipfCounts(spec.users(), (long) spec.users() * spec.meanSessionsPerUser(), 1,
+                    Integer.MAX_VALUE);
+            int totalSessions = 0;
+            for (int count : sessionsPerUser) {
+                totalSessions += count;
+            }
+            int[] messagesPerSession = zipfCounts(totalSessions, (long) totalSessions * spec.meanMessagesPerSession(),
+                    0, spec.maxMessagesPerSession());
+
+            long[] userIds = insertUsers(connection);
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime[] sessionStarts = new LocalDateTime[totalSessions];
+            long[] sessionIds = insertSessions(connection, userIds, sessionsPerUser, sessionStarts, now);
+            long messages = insertMessages(connection, sessionIds, messagesPerSession, sessionStarts, now);
+
+            List<SyntheticUser> users = new ArrayList<>(spec.users());
+            int session = 0;
+            for (int u = 0; u < spec.users(); u++) {
+                int busiest = session;
+                long userMessages = 0;
+                for (int s = session; s < session + sessionsPerUser[u]; s++) {
+                    userMessages += messagesPerSession[s];
+                    if (messagesPerSession[s] > messagesPerSession[busiest]) {
+                        busiest = s;
+                    }
+                }
+                users.add(new SyntheticUser(username(u), sessionIds[busiest], sessionsPerUser[u], userMessages));
+                session += sessionsPerUser[u];
+            }
+            return new Summary(users, totalSessions, messages, System.nanoTime() - start);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private long[] insertUsers(Connection connection) throws SQLException {
+        // One hash for everyone: BCrypt is deliberately slow and would dominate the load time
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (username, password, email, full_name, role) VALUES (?, ?, ?, ?, ?)")) {
+            for (int u = 0; u < spec.users(); u++) {
+                insert.setString(1, username(u));
+                insert.setString(2, passwordHash);
+                insert.setString(3, username(u) + "@example.com");
+                insert.setString(4, "Synthetic User " + u);
+                insert.setString(5, "USER");
+                addToBatch(connection, insert, u + 1);
+            }
+            flush(connection, insert);
+        }
+        return generatedIds(connection, "SELECT id FROM users WHERE username LIKE ? ORDER BY id",
+                "synthetic-" + runId + "-%", spec.users());
+    }
+
+    private long[] insertSessions(Connection connection, long[] userIds, int[] sessionsPerUser,
+                                  LocalDateTime[] sessionStarts, LocalDateTime now) throws SQLException {
+        long spanMinutes = TimeUnit.DAYS.toMinutes(30L * spec.months());
+        int index = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO chat_sessions (user_id, created_at, name) VALUES (?, ?, ?)")) {
+            for (int u = 0; u < userIds.length; u++) {
+                for (int s = 0; s < sessionsPerUser[u]; s++) {
+                    LocalDateTime createdAt = now.minusMinutes((long) (random.nextDouble() * spanMinutes));
+                    sessionStarts[index] = createdAt;
+                    insert.setLong(1, userIds[u]);
+                    insert.setTimestamp(2, Timestamp.valueOf(createdAt));
+                    insert.setString(3, "synthetic-" + runId + "-" + index);
+                    addToBatch(connection, insert, ++index);
+                }
+            }
+            flush(connection, insert);
+        }
+        // Identity values follow insertion order, so the n-th id belongs to the n-th session generated
+        return generatedIds(connection, "SELECT id FROM chat_sessions WHERE name LIKE ? ORDER BY id",
+                "synthetic-" + runId + "-%", index);
+    }
+
+    private long insertMessages(Connection connection, long[] sessionIds, int[] messagesPerSession,
+                                LocalDateTime[] sessionStarts, LocalDateTime now) throws SQLException {
+        long rows = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO messages (chat_session_id, content, timestamp, sender) VALUES (?, ?, ?, ?)")) {
+            for (int s = 0; s < sessionIds.length; s++) {
+                LocalDateTime timestamp = sessionStarts[s];
+                boolean previousWasUser = false;
+                for (int m = 0; m < messagesPerSession[s]; m++) {
+                    // Bot messages answer the preceding question; the ratio decides how often one is missing
+                    boolean bot = previousWasUser && random.nextDouble() < spec.botRatio() * 2;
+                    previousWasUser = !bot;
+                    timestamp = nextTimestamp(timestamp, bot, now);
+                    insert.setLong(1, sessionIds[s]);
+                    insert.setString(2, bot ? botContent() : QUESTIONS[random.nextInt(QUESTIONS.length)]);
+                    insert.setTimestamp(3, Timestamp.valueOf(timestamp));
+                    insert.setString(4, bot ? "BOT" : "USER");
+                    addToBatch(connection, insert, ++rows);
+                }
+            }
+            flush(connection, insert);
+        }
+        return rows;
+    }
+
+    // Bots answer within seconds; users come back after minutes, sometimes days
+    private LocalDateTime nextTimestamp(LocalDateTime previous, boolean bot, LocalDateTime now) {
+        LocalDateTime next;
+        if (bot) {
+            next = previous.plusNanos(TimeUnit.MILLISECONDS.toNanos(200 + random.nextInt(3000)));
+        } else if (random.nextInt(50) == 0) {
+            next = previous.plusHours(12 + random.nextInt(24 * 14));
+        } else {
+            next = previous.plusSeconds(10 + random.nextInt(600));
+        }
+        return next.isAfter(now) ? now : next;
+    }
+
+    // Stored the way ChatAskService stores it: the raw Rasa response carrying the query
+    private String botContent() {
+        return "[{\"recipient_id\":\"user123\",\"text\":\"query: " + BOT_QUERIES[random.nextInt(BOT_QUERIES.length)] + "\"}]";
+    }
+
+    private String username(int index) {
+        return "synthetic-" + runId + "-" + index;
+    }
+
+    /**
+     * Splits total into n counts proportional to 1 / rank^skew, shuffled so the heavy counts are
+     * not all at the start, and clamped to [min, max].
+     */
+    private int[] zipfCounts(int n, long total, int min, int max) {
+        double[] weights = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            weights[i] = 1.0 / Math.pow(i + 1, spec.skew());
+            sum += weights[i];
+        }
+        int[] counts = new int[n];
+        for (int i = 0; i < n; i++) {
+            counts[i] = (int) Math.max(min, Math.min(max, Math.round(total * weights[i] / sum)));
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = counts[i];
+            counts[i] = counts[j];
+            counts[j] = swap;
+        }
+        return counts;
+    }
+
+    private void addToBatch(Connection connection, PreparedStatement insert, long rows) throws SQLException {
+        insert.addBatch();
+        if (rows % spec.batchSize() == 0) {
+            flush(connection, insert);
+        }
+    }
+
+    // Committing every batch keeps the transaction log and lock count small on large loads
+    private static void flush(Connection connection, PreparedStatement insert) throws SQLException {
+        insert.executeBatch();
+        connection.commit();
+    }
+
+    private static long[] generatedIds(Connection connection, String sql, String pattern, int expected)
+            throws SQLException {
+        long[] ids = new long[expected];
+        int count = 0;
+        try (PreparedStatement select = connection.prepareStatement(sql)) {
+            select.setString(1, pattern);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next() && count < expected) {
+                    ids[count++] = rs.getLong(1);
+                }
+            }
+        }
+        if (count != expected) {
+            throw new IllegalStateException("Expected " + expected + " generated ids, found " + count);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,358 @@
+package com.hmzadev.interactivechatbot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmzadev.interactivechatbot.datagen.SyntheticDataLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load run against the full application on H2 with {@link RasaStub} in place of Rasa.
+ * Requests are issued open-loop at load.rps; each latency is measured from the request's scheduled
+ * start, so a stalled server shows up in the percentiles instead of silently lowering the rate.
+ * <p>
+ * Each subclass is skipped unless load.enabled=true (JUnit does not inherit the condition, so it sits
+ * on the subclasses); run with mvn -Pload-test test. Tunables (system properties): load.rps,
+ * load.duration-seconds, load.users, load.rasa.latency-ms, load.rasa.jitter-ms, load.max-error-rate,
+ * load.max-ask-p99-ms, load.max-read-p99-ms.
+ * <p>
+ * The concurrency ramp runs closed-loop askers at each of load.ramp.levels (default
+ * 10,25,50,100,200) for load.ramp.step-seconds and reports the highest level whose error rate and
+ * ask p99 stay within the limits above, together with the peak number of asks in flight. Each
+ * execution mode writes target/load-ramp-&lt;label&gt;.json, and every ramp report found there is
+ * printed side by side.
+ * <p>
+ * With load.synthetic.users set, the database is first filled by {@link SyntheticDataLoader}
+ * (load.synthetic.* mirrors its datagen.* properties) and the virtual users are synthetic users
+ * working on their largest session, instead of fresh users with an empty one.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;MODE=MSSQLServer",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.data-locations=classpath:loadtest/data.sql",
+        "ratelimit.user.questions-per-minute=1000000",
+        "ratelimit.user.questions-burst=100000",
+        "ratelimit.user.reads-per-minute=1000000",
+        "ratelimit.user.reads-burst=100000",
+        "logging.level.com.hmzadev.interactivechatbot.services.AuthenticationService=WARN"
+})
+abstract class AbstractChatLoadTest {
+
+    private static final List<String> SQL_ANSWERS = List.of(
+            "SELECT * FROM data WHERE region = 'North' AND quantity = 3",
+            "SELECT region, SUM(amount) AS total FROM data GROUP BY region",
+            "SELECT TOP 50 product, amount FROM data ORDER BY amount DESC",
+            "SELECT product, COUNT(*) AS sales FROM data WHERE sale_date >= '2024-03-01' GROUP BY product");
+
+    private static final RasaStub RASA = startRasaStub();
+
+    private static final Map<DataSource, SyntheticDataLoader.Summary> SYNTHETIC_DATA = new IdentityHashMap<>();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void rasaProperties(DynamicPropertyRegistry registry) {
+        registry.add("rasa.url", RASA::webhookUrl);
+        registry.add("rasa.health-url", () -> RASA.baseUrl() + "/");
+    }
+
+    // Name used in the printed report and in target/load-report-<label>.json
+    protected abstract String label();
+
+    @Test
+    void askPipelineUnderLoad() throws Exception {
+        int rps = Integer.getInteger("load.rps", 50);
+        int durationSeconds = Integer.getInteger("load.duration-seconds", 30);
+        int userCount = Integer.getInteger("load.users", 20);
+
+        LoadStats stats = new LoadStats();
+        List<VirtualUser> users = prepareUsers(userCount, stats);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long totalRequests = (long) rps * durationSeconds;
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+        long start = System.nanoTime();
+        for (long i = 0; i < totalRequests; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            VirtualUser user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+            inFlight.add(fire(pickOperation(), user, scheduled, stats));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, Object> report = stats.report(label(), elapsed);
+        String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        System.out.println("Load report (" + label() + "):\n" + json);
+        writeReport("load-report-", json);
+
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+        for (String operation : List.of("login", "ask", "message-add", "history")) {
+            assertThat(stats.errorRate(operation)).as("%s error rate", operation).isLessThanOrEqualTo(maxErrorRate);
+        }
+        assertThat(stats.percentileMillis("ask", 0.99)).as("ask p99 (ms)")
+                .isLessThanOrEqualTo(Double.parseDouble(System.getProperty("load.max-ask-p99-ms", "2000")));
+        assertThat(stats.percentileMillis("history", 0.99)).as("history p99 (ms)")
+                .isLessThanOrEqualTo(Double.parseDouble(System.getProperty("load.max-read-p99-ms", "1000")));
+        assertThat(RASA.requestCount()).isPositive();
+    }
+
+    @Test
+    void askConcurrencyRamp() throws Exception {
+        int[] levels = Arrays.stream(System.getProperty("load.ramp.levels", "10,25,50,100,200").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        long stepNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger("load.ramp.step-seconds", 10));
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+        double maxAskP99Ms = Double.parseDouble(System.getProperty("load.max-ask-p99-ms", "2000"));
+        List<VirtualUser> users = prepareUsers(Integer.getInteger("load.users", 20), new LoadStats());
+
+        List<Map<String, Object>> steps = new ArrayList<>();
+        int maxSustained = 0;
+        int peakInFlight = 0;
+        for (int level : levels) {
+            LoadStats stats = new LoadStats();
+            long start = System.nanoTime();
+            long deadline = start + stepNanos;
+            List<CompletableFuture<Void>> askers = new ArrayList<>();
+            for (int i = 0; i < level; i++) {
+                askers.add(askUntil(users.get(i % users.size()), deadline, stats));
+            }
+            CompletableFuture.allOf(askers.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+
+            boolean sustained = stats.errorRate("ask") <= maxErrorRate && stats.percentileMillis("ask", 0.99) <= maxAskP99Ms;
+            Map<String, Object> step = new LinkedHashMap<>();
+            step.put("concurrency", level);
+            step.put("sustained", sustained);
+            step.put("report", stats.report(label(), System.nanoTime() - start));
+            steps.add(step);
+            peakInFlight = Math.max(peakInFlight, stats.peakInFlight("ask"));
+            if (!sustained) {
+                break;  // Past saturation; the next levels would only measure queueing and shedding
+            }
+            maxSustained = level;
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", label());
+        report.put("maxSustainedConcurrency", maxSustained);
+        report.put("peakAsksInFlight", peakInFlight);
+        report.put("steps", steps);
+        writeReport("load-ramp-", objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        printRampComparison();
+
+        assertThat(maxSustained).as("highest ask concurrency within the error-rate and p99 limits").isPositive();
+    }
+
+    // Closed loop: each asker sends its next question as soon as the previous one is answered
+    private CompletableFuture<Void> askUntil(VirtualUser user, long deadline, LoadStats stats) {
+        long now = System.nanoTime();
+        if (now >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return fire("ask", user, now, stats).thenCompose(ignored -> askUntil(user, deadline, stats));
+    }
+
+    private void printRampComparison() throws IOException {
+        Path target = Path.of("target");
+        if (!Files.isDirectory(target)) {
+            return;
+        }
+        System.out.println("Ask concurrency ramp (mode: max sustained / peak in flight):");
+        try (Stream<Path> reports = Files.list(target)) {
+            for (Path path : reports.filter(p -> p.getFileName().toString().startsWith("load-ramp-")).sorted().toList()) {
+                JsonNode ramp = objectMapper.readTree(path.toFile());
+                System.out.printf("  %-16s %5d / %d%n", ramp.get("label").asText(),
+                        ramp.get("maxSustainedConcurrency").asInt(), ramp.get("peakAsksInFlight").asInt());
+            }
+        }
+    }
+
+    private List<VirtualUser> prepareUsers(int userCount, LoadStats stats) throws Exception {
+        List<VirtualUser> users = new ArrayList<>();
+        if (Integer.getInteger("load.synthetic.users", 0) > 0) {
+            SyntheticDataLoader.Summary data = syntheticData(dataSource);
+            for (SyntheticDataLoader.SyntheticUser user : data.users().subList(0, Math.min(userCount, data.users().size()))) {
+                users.add(login(user, stats));
+            }
+        } else {
+            for (int i = 0; i < userCount; i++) {
+                users.add(register(stats));
+            }
+        }
+        return users;
+    }
+
+    // Loaded once per database: both tests of a mode run against the same application context
+    private static synchronized SyntheticDataLoader.Summary syntheticData(DataSource dataSource) throws SQLException {
+        SyntheticDataLoader.Summary data = SYNTHETIC_DATA.get(dataSource);
+        if (data == null) {
+            data = SyntheticDataLoader.load(dataSource, SyntheticDataLoader.Spec.fromSystemProperties("load.synthetic."));
+            System.out.printf("Synthetic data: %d sessions, %d messages (%.0f rows/s)%n",
+                    data.sessions(), data.messages(), data.rowsPerSecond());
+            SYNTHETIC_DATA.put(dataSource, data);
+        }
+        return data;
+    }
+
+    private void writeReport(String prefix, String json) throws IOException {
+        Path target = Path.of("target");
+        if (Files.isDirectory(target)) {
+            Files.writeString(target.resolve(prefix + label() + ".json"), json);
+        }
+    }
+
+    // Mix seen in production: mostly history reads, a third questions, the rest adds and re-logins
+    private String pickOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        if (roll < 5) {
+            return "login";
+        } else if (roll < 35) {
+            return "ask";
+        } else if (roll < 50) {
+            return "message-add";
+        }
+        return "history";
+    }
+
+    private CompletableFuture<Void> fire(String operation, VirtualUser user, long scheduled, LoadStats stats) {
+        HttpRequest request = switch (operation) {
+            case "login" -> post("/api/v1/auth/login", null,
+                    "{\"username\":\"" + user.username + "\",\"password\":\"" + user.password + "\"}");
+            case "ask" -> get("/chat-sessions/ask?sessionId=" + user.sessionId
+                    + "&question=" + encode("What were the totals per region?"), user.token);
+            case "message-add" -> post("/chat-sessions/messages/add?sessionId=" + user.sessionId
+                    + "&content=" + encode("Show me the top products"), user.token, null);
+            default -> get("/chat-sessions/" + user.sessionId + "/messages", user.token);
+        };
+        stats.started(operation);
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    boolean ok = error == null && response.statusCode() < 300;
+                    stats.record(operation, System.nanoTime() - scheduled, ok);
+                    return null;
+                });
+    }
+
+    private VirtualUser register(LoadStats stats) throws IOException, InterruptedException {
+        String username = "load-" + UUID.randomUUID().toString().substring(0, 8);
+        String password = "load-password";
+        long start = System.nanoTime();
+        HttpResponse<String> registered = httpClient.send(post("/api/v1/auth/register", null,
+                "{\"username\":\"" + username + "\",\"password\":\"" + password + "\",\"email\":\"" + username
+                        + "@example.com\",\"fullName\":\"Load User\"}"), HttpResponse.BodyHandlers.ofString());
+        stats.record("register", System.nanoTime() - start, registered.statusCode() == 200);
+        assertThat(registered.statusCode()).as("register").isEqualTo(200);
+        String token = objectMapper.readTree(registered.body()).get("token").asText();
+
+        HttpResponse<String> created = httpClient.send(post("/chat-sessions/create", token,
+                "{\"sessionName\":\"" + username + "\"}"), HttpResponse.BodyHandlers.ofString());
+        assertThat(created.statusCode()).as("create session").isEqualTo(200);
+        JsonNode session = objectMapper.readTree(created.body());
+        return new VirtualUser(username, password, token, session.get("id").asLong());
+    }
+
+    private VirtualUser login(SyntheticDataLoader.SyntheticUser user, LoadStats stats) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> loggedIn = httpClient.send(post("/api/v1/auth/login", null,
+                "{\"username\":\"" + user.username() + "\",\"password\":\"" + SyntheticDataLoader.PASSWORD + "\"}"),
+                HttpResponse.BodyHandlers.ofString());
+        stats.record("login", System.nanoTime() - start, loggedIn.statusCode() == 200);
+        assertThat(loggedIn.statusCode()).as("login").isEqualTo(200);
+        String token = objectMapper.readTree(loggedIn.body()).get("token").asText();
+        return new VirtualUser(user.username(), SyntheticDataLoader.PASSWORD, token, user.busiestSessionId());
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, String json) {
+        HttpRequest.Builder builder = request(path, token);
+        if (json == null) {
+            return builder.POST(HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static RasaStub startRasaStub() {
+        try {
+            // Shared by every load test class in the JVM, so it is stopped with the JVM rather than per class
+            RasaStub stub = new RasaStub(Long.getLong("load.rasa.latency-ms", 50),
+                    Long.getLong("load.rasa.jitter-ms", 30), SQL_ANSWERS);
+            Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+            return stub;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record VirtualUser(String username, String password, String token, long sessionId) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.hmzadev.interactivechatbot.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latencies and outcomes per operation for one load run. Latencies are kept raw (a run is a few
+ * hundred thousand samples at most) and sorted once when the report is built. Operations issued
+ * through {@link #started} also track how many were in flight at once.
+ */
+public class LoadStats {
+
+    private final Map<String, Samples> operations = new ConcurrentHashMap<>();
+
+    public void started(String operation) {
+        operations.computeIfAbsent(operation, name -> new Samples()).started();
+    }
+
+    // Completes an operation; pairs with started() when in-flight tracking is used
+    public void record(String operation, long latencyNanos, boolean ok) {
+        operations.computeIfAbsent(operation, name -> new Samples()).add(latencyNanos, ok);
+    }
+
+    public int peakInFlight(String operation) {
+        Samples samples = operations.get(operation);
+        return samples == null ? 0 : samples.peakInFlight.get();
+    }
+
+    public Map<String, Object> report(String label, long elapsedNanos) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", label);
+        report.put("durationSeconds", elapsedNanos / 1e9);
+        Map<String, Object> perOperation = new LinkedHashMap<>();
+        long total = 0;
+        long errors = 0;
+        for (Map.Entry<String, Samples> entry : operations.entrySet()) {
+            Samples samples = entry.getValue();
+            long[] sorted = samples.sorted();
+            total += sorted.length;
+            errors += samples.errors;
+            Map<String, Object> summary = summary(sorted, samples.errors, elapsedNanos);
+            summary.put("peakInFlight", samples.peakInFlight.get());
+            perOperation.put(entry.getKey(), summary);
+        }
+        report.put("requests", total);
+        report.put("throughputPerSecond", total / (elapsedNanos / 1e9));
+        report.put("errorRate", total == 0 ? 0.0 : (double) errors / total);
+        report.put("operations", perOperation);
+        return report;
+    }
+
+    public double errorRate(String operation) {
+        Samples samples = operations.get(operation);
+        return samples == null || samples.count == 0 ? 0.0 : (double) samples.errors / samples.count;
+    }
+
+    public double percentileMillis(String operation, double percentile) {
+        Samples samples = operations.get(operation);
+        return samples == null ? 0.0 : toMillis(percentile(samples.sorted(), percentile));
+    }
+
+    private static Map<String, Object> summary(long[] sorted, long errors, long elapsedNanos) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", sorted.length);
+        summary.put("errors", errors);
+        summary.put("throughputPerSecond", sorted.length / (elapsedNanos / 1e9));
+        summary.put("p50Ms", toMillis(percentile(sorted, 0.50)));
+        summary.put("p99Ms", toMillis(percentile(sorted, 0.99)));
+        summary.put("p999Ms", toMillis(percentile(sorted, 0.999)));
+        summary.put("maxMs", toMillis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+        return summary;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static final class Samples {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+
+        void started() {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        }
+
+        synchronized void add(long latencyNanos, boolean ok) {
+            inFlight.updateAndGet(n -> Math.max(0, n - 1));
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.hmzadev.interactivechatbot.loadtest;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.context.TestPropertySource;
+
+@EnabledIfSystemProperty(named = "load.enabled", matches = "true")
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadsLoadTest extends AbstractChatLoadTest {
+
+    @Override
+    protected String label() {
+        return "platform-threads";
+    }
+}
@@ -0,0 +1,81 @@
+package com.hmzadev.interactivechatbot.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for the Rasa REST channel. Answers /webhooks/rest/webhook with one of the
+ * configured SQL queries (round robin) after latencyMs plus up to jitterMs of random delay, and
+ * answers GET / like the Rasa health endpoint.
+ */
+public class RasaStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<String> sqlAnswers;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    public RasaStub(long latencyMs, long jitterMs, List<String> sqlAnswers) throws IOException {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.sqlAnswers = sqlAnswers;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/webhooks/rest/webhook", this::answer);
+        server.createContext("/", exchange -> respond(exchange, "Hello from Rasa: stub"));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String webhookUrl() {
+        return baseUrl() + "/webhooks/rest/webhook";
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int requestCount() {
+        return requests.get();
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        try {
+            long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String sql = sqlAnswers.get(Math.floorMod(next.getAndIncrement(), sqlAnswers.size()));
+        respond(exchange, "[{\"recipient_id\":\"user123\",\"text\":\"Here is the query: " + sql + "\"}]");
+    }
+
+    private void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,15 @@
+package com.hmzadev.interactivechatbot.loadtest;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.context.TestPropertySource;
+
+// Same run with Tomcat and the chat executors on virtual threads; compare with load-report-platform-threads.json
+@EnabledIfSystemProperty(named = "load.enabled", matches = "true")
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsLoadTest extends AbstractChatLoadTest {
+
+    @Override
+    protected String label() {
+        return "virtual-threads";
+    }
+}
@@ -0,0 +1,122 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.dao.ChatSession;
+import com.hmzadev.interactivechatbot.dao.Message;
+import com.hmzadev.interactivechatbot.dao.Role;
+import com.hmzadev.interactivechatbot.dao.SenderType;
+import com.hmzadev.interactivechatbot.dao.User;
+import com.hmzadev.interactivechatbot.repositories.ChatSessionRepository;
+import com.hmzadev.interactivechatbot.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:payloadtest;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("h2")
+class BotPayloadServiceTest {
+
+    @Autowired
+    private BotPayloadService botPayloadService;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private ChatExportService chatExportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private ChatSession chatSession;
+
+    @BeforeEach
+    void createSession() {
+        user = userRepository.save(User.builder()
+                .username("payload-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.USER)
+                .build());
+        ChatSession session = new ChatSession();
+        session.setUser(user);
+        session.setName("payload-" + UUID.randomUUID());
+        session.setCreatedAt(LocalDateTime.now());
+        chatSession = chatSessionRepository.save(session);
+    }
+
+    @Test
+    void identicalBotAnswersShareOnePayload() throws Exception {
+        String answer = longAnswer();
+
+        Message first = messageService.saveMessage(new Message(chatSession, answer, LocalDateTime.now(), SenderType.BOT));
+        Message second = messageService.saveMessage(new Message(chatSession, answer, LocalDateTime.now(), SenderType.BOT));
+
+        String hash = BotPayloadService.hash(answer);
+        assertThat(payloadRows(hash)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT content FROM messages WHERE payload_hash = ?", String.class, hash))
+                .containsExactly("", "");
+        // Read back after the save, after a reload, from the history stream and from the export
+        assertThat(first.getContent()).isEqualTo(answer);
+        assertThat(second.getContent()).isEqualTo(answer);
+        assertThat(messageService.getMessagesBySessionId(chatSession.getId()))
+                .extracting(Message::getContent)
+                .containsExactly(answer, answer);
+        List<String> history = new ArrayList<>();
+        messageService.streamMessagesBySessionId(chatSession.getId(), (content, sender, timestamp) -> history.add(content));
+        assertThat(history).containsExactly(answer, answer);
+        ByteArrayOutputStream export = new ByteArrayOutputStream();
+        chatExportService.export(user.getUsername(), export, false);
+        assertThat(export.toString(StandardCharsets.UTF_8).lines().filter(line -> line.contains(answer))).hasSize(2);
+    }
+
+    @Test
+    void shortAnswersAndUserMessagesStayInline() {
+        Message shortAnswer = messageService.saveMessage(new Message(chatSession, "42", LocalDateTime.now(), SenderType.BOT));
+        Message question = messageService.saveMessage(new Message(chatSession, longAnswer(), LocalDateTime.now(), SenderType.USER));
+
+        assertThat(shortAnswer.getPayloadHash()).isNull();
+        assertThat(question.getPayloadHash()).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT content FROM messages WHERE id = ?", String.class, question.getId()))
+                .isEqualTo(question.getContent());
+    }
+
+    @Test
+    void payloadStoredByAnotherWriterIsReused() {
+        String answer = longAnswer();
+        String hash = BotPayloadService.hash(answer);
+        // Another instance stored it first, so the insert below hits the primary key
+        jdbcTemplate.update("INSERT INTO bot_payloads (hash, content, created_at) VALUES (?, ?, ?)",
+                hash, answer, LocalDateTime.now());
+
+        assertThat(botPayloadService.intern(answer)).isEqualTo(hash);
+        assertThat(payloadRows(hash)).isEqualTo(1);
+        assertThat(botPayloadService.isStored(hash)).isTrue();
+    }
+
+    private int payloadRows(String hash) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bot_payloads WHERE hash = ?", Integer.class, hash);
+    }
+
+    // Unique per test, above chat.bot-payloads.min-length and still within the inline content column
+    private static String longAnswer() {
+        return "SELECT region, SUM(amount) FROM sales GROUP BY region -- " + UUID.randomUUID() + " " + "x".repeat(60);
+    }
+}
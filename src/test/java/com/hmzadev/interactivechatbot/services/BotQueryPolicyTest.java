@@ -0,0 +1,30 @@
+package com.hmzadev.interactivechatbot.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BotQueryPolicyTest {
+
+    @Test
+    void selectsAndCommonTableExpressionsAreReads() {
+        assertThat(BotQueryPolicy.isRead("select * from data")).isTrue();
+        assertThat(BotQueryPolicy.isRead("  WITH t AS (SELECT 1 AS n) SELECT n FROM t")).isTrue();
+        assertThat(BotQueryPolicy.isRead("(SELECT 1) UNION (SELECT 2)")).isTrue();
+    }
+
+    @Test
+    void leadingCommentsAreSkipped() {
+        assertThat(BotQueryPolicy.operation("-- totals per region\nSELECT region FROM data")).isEqualTo("SELECT");
+        assertThat(BotQueryPolicy.operation("/* generated */ with t AS (SELECT 1) SELECT * FROM t")).isEqualTo("WITH");
+    }
+
+    @Test
+    void everythingElseIsRejected() {
+        assertThat(BotQueryPolicy.isRead("DELETE FROM data")).isFalse();
+        assertThat(BotQueryPolicy.isRead("/* SELECT */ DROP TABLE data")).isFalse();
+        assertThat(BotQueryPolicy.isRead("SELECTED")).isFalse();
+        assertThat(BotQueryPolicy.isRead("-- only a comment")).isFalse();
+        assertThat(BotQueryPolicy.isRead("")).isFalse();
+    }
+}
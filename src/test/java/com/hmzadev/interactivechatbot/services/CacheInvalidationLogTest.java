@@ -0,0 +1,127 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.configuration.SecondLevelCacheConfig;
+import com.hmzadev.interactivechatbot.dao.ChatSession;
+import com.hmzadev.interactivechatbot.dao.Role;
+import com.hmzadev.interactivechatbot.dao.User;
+import com.hmzadev.interactivechatbot.repositories.ChatSessionRepository;
+import com.hmzadev.interactivechatbot.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Plays the second instance by inserting change-log rows with a foreign origin
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:invalidationtest;DB_CLOSE_DELAY=-1",
+        "chat.cache.invalidation.enabled=true",
+        "chat.cache.invalidation.poll-ms=3600000"
+})
+@ActiveProfiles("h2")
+class CacheInvalidationLogTest {
+
+    private static final String OTHER_NODE = "other-node";
+
+    @Autowired
+    private CacheInvalidationLog cacheInvalidationLog;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    @Autowired
+    private SessionOwnershipCache sessionOwnershipCache;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private ChatSession chatSession;
+
+    @BeforeEach
+    void createRows() {
+        user = userRepository.save(User.builder()
+                .username("invalidation-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.USER)
+                .build());
+        ChatSession session = new ChatSession();
+        session.setUser(user);
+        session.setName("invalidation-" + UUID.randomUUID());
+        session.setCreatedAt(LocalDateTime.now());
+        chatSession = chatSessionRepository.save(session);
+        // Skip past everything logged so far, including this instance's own rows
+        cacheInvalidationLog.poll();
+    }
+
+    @Test
+    void foreignChangesEvictEntitiesAndOwnership() {
+        // Loading through the repositories puts both entities in the second-level cache
+        userRepository.findById(user.getId());
+        chatSessionRepository.findById(chatSession.getId());
+        sessionOwnershipCache.put(chatSession.getId(), user.getId());
+        assertThat(cache().containsEntity(User.class, user.getId())).isTrue();
+        assertThat(cache().containsEntity(ChatSession.class, chatSession.getId())).isTrue();
+
+        insertForeign(SecondLevelCacheConfig.USERS_REGION, user.getId());
+        insertForeign(SecondLevelCacheConfig.CHAT_SESSIONS_REGION, chatSession.getId());
+        cacheInvalidationLog.poll();
+
+        assertThat(cache().containsEntity(User.class, user.getId())).isFalse();
+        assertThat(cache().containsEntity(ChatSession.class, chatSession.getId())).isFalse();
+        assertThat(sessionOwnershipCache.get(chatSession.getId())).isEqualTo(SessionOwnershipCache.ABSENT);
+    }
+
+    @Test
+    void foreignMessageWriteMovesTheSessionVersion() {
+        long before = resourceVersionService.sessionVersion(chatSession.getId());
+
+        insertForeign(CacheInvalidationLog.SESSION_MESSAGES, chatSession.getId());
+        cacheInvalidationLog.poll();
+
+        assertThat(resourceVersionService.sessionVersion(chatSession.getId())).isGreaterThan(before);
+    }
+
+    @Test
+    void ownRowsAndAlreadyAppliedRowsAreSkipped() {
+        long before = resourceVersionService.sessionVersion(chatSession.getId());
+
+        jdbcTemplate.update("INSERT INTO cache_invalidations (region, entity_id, origin, created_at) VALUES (?, ?, ?, ?)",
+                CacheInvalidationLog.SESSION_MESSAGES, chatSession.getId().toString(), cacheInvalidationLog.getNodeId(),
+                LocalDateTime.now());
+        cacheInvalidationLog.poll();
+        assertThat(resourceVersionService.sessionVersion(chatSession.getId())).isEqualTo(before);
+
+        insertForeign(CacheInvalidationLog.SESSION_MESSAGES, chatSession.getId());
+        cacheInvalidationLog.poll();
+        // The row is still inside the overlap window, but was applied by the previous poll
+        cacheInvalidationLog.poll();
+        assertThat(resourceVersionService.sessionVersion(chatSession.getId())).isEqualTo(before + 1);
+    }
+
+    private void insertForeign(String region, Long entityId) {
+        jdbcTemplate.update("INSERT INTO cache_invalidations (region, entity_id, origin, created_at) VALUES (?, ?, ?, ?)",
+                region, entityId.toString(), OTHER_NODE, LocalDateTime.now());
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+}
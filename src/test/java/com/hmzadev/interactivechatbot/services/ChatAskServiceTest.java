@@ -0,0 +1,49 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.dao.AskResult;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatAskServiceTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final SimpleAsyncTaskExecutor chatExecutor = new SimpleAsyncTaskExecutor("chat-");
+    private ChatAskService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ChatAskService();
+        ReflectionTestUtils.setField(service, "userService", userService);
+        ReflectionTestUtils.setField(service, "chatSessionService", mock(ChatSessionService.class));
+        ReflectionTestUtils.setField(service, "chatExecutor", chatExecutor);
+        ReflectionTestUtils.setField(service, "observationRegistry", ObservationRegistry.NOOP);
+        ReflectionTestUtils.setField(service, "lookupTimeoutMs", 50L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        chatExecutor.close();
+    }
+
+    @Test
+    void aLookupPastItsTimeoutIsReportedAsTimeout() {
+        when(userService.findByUsername("alice")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return Optional.empty();
+        });
+
+        AskResult result = service.ask("alice", 7L, "How many sales?");
+
+        assertThat(result.getStatus()).isEqualTo(AskResult.Status.TIMEOUT);
+    }
+}
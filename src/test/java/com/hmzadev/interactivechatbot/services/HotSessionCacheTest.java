@@ -0,0 +1,119 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.dao.ChatSession;
+import com.hmzadev.interactivechatbot.dao.Message;
+import com.hmzadev.interactivechatbot.dao.SenderType;
+import com.hmzadev.interactivechatbot.repositories.MessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Replays the orderings of a cache fill and MessageService.saveMessage (commit, bump, append) step by step
+class HotSessionCacheTest {
+
+    private static final long SESSION_ID = 42L;
+
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private ResourceVersionService resourceVersionService;
+    private HotSessionCache hotSessionCache;
+
+    // Stored rows, newest first as the repository returns them
+    private final List<Message> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        resourceVersionService = new ResourceVersionService(60, 64,
+                new DefaultListableBeanFactory().getBeanProvider(CacheInvalidationLog.class));
+        hotSessionCache = new HotSessionCache(messageRepository, resourceVersionService, new SimpleMeterRegistry(),
+                10, 100, 15);
+        stored.add(0, message(1, "first"));
+    }
+
+    @Test
+    void appendOfAMessageTheFillAlreadyReadIsIgnored() {
+        Message second = message(2, "second");
+        // The save commits before the fill reads, but bumps and appends only after the fill landed
+        stored.add(0, second);
+        returnStoredRows(null);
+
+        assertThat(contents(hotSessionCache.latest(SESSION_ID, 10))).containsExactly("first", "second");
+
+        resourceVersionService.sessionChanged(SESSION_ID);
+        hotSessionCache.append(second);
+
+        assertThat(contents(hotSessionCache.latest(SESSION_ID, 10))).containsExactly("first", "second");
+    }
+
+    @Test
+    void fillIsDiscardedWhenAWriteIsBumpedDuringTheRead() {
+        Message second = message(2, "second");
+        // The save commits after the fill read its rows, and bumps before the fill is offered
+        returnStoredRows(() -> {
+            stored.add(0, second);
+            resourceVersionService.sessionChanged(SESSION_ID);
+        });
+
+        assertThat(contents(hotSessionCache.latest(SESSION_ID, 10))).containsExactly("first");
+        assertThat(hotSessionCache.knownNonEmpty(SESSION_ID)).isFalse();
+
+        // Nothing cached, so the append is dropped and the next read goes back to the database
+        hotSessionCache.append(second);
+        returnStoredRows(null);
+        assertThat(contents(hotSessionCache.latest(SESSION_ID, 10))).containsExactly("first", "second");
+    }
+
+    @Test
+    void appendAfterTheFillIsKeptInOrder() {
+        returnStoredRows(null);
+        hotSessionCache.latest(SESSION_ID, 10);
+
+        Message second = message(2, "second");
+        stored.add(0, second);
+        resourceVersionService.sessionChanged(SESSION_ID);
+        hotSessionCache.append(second);
+        // A second delivery of the same save changes nothing
+        hotSessionCache.append(second);
+
+        assertThat(contents(hotSessionCache.latest(SESSION_ID, 10))).containsExactly("first", "second");
+        assertThat(hotSessionCache.completeSession(SESSION_ID)).hasSize(2);
+    }
+
+    private void returnStoredRows(Runnable duringRead) {
+        when(messageRepository.findByChatSessionIdOrderByTimestampDescIdDesc(eq(SESSION_ID), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    List<Message> rows = new ArrayList<>(stored);
+                    if (duringRead != null) {
+                        duringRead.run();
+                    }
+                    return rows;
+                });
+    }
+
+    private static Message message(long id, String content) {
+        ChatSession chatSession = new ChatSession();
+        chatSession.setId(SESSION_ID);
+        Message message = new Message();
+        message.setId(id);
+        message.setChatSession(chatSession);
+        message.setContent(content);
+        message.setSender(SenderType.USER);
+        message.setTimestamp(LocalDateTime.of(2024, 1, 1, 12, 0).plusSeconds(id));
+        return message;
+    }
+
+    private static List<String> contents(List<HotSessionCache.CachedMessage> messages) {
+        return messages.stream().map(HotSessionCache.CachedMessage::content).toList();
+    }
+}
@@ -0,0 +1,140 @@
+package com.hmzadev.interactivechatbot.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QueryMaterializationServiceTest {
+
+    private static final String FINGERPRINT = "SELECT region, SUM(amount) FROM data WHERE year = ? GROUP BY region";
+    private static final String SQL = "SELECT region, SUM(amount) FROM data WHERE year = 2024 GROUP BY region";
+    private static final List<Map<String, Object>> ROWS = List.of(Map.of("region", "North", "total", 10));
+
+    private final QueryStatisticsService queryStatisticsService = mock(QueryStatisticsService.class);
+    private final JdbcTemplate refreshJdbcTemplate = mock(JdbcTemplate.class);
+    private QueryMaterializationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new QueryMaterializationService();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(mock(DataSource.class));
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "queryStatisticsService", queryStatisticsService);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "minCalls", 20L);
+        ReflectionTestUtils.setField(service, "minTotalMs", 1000L);
+        ReflectionTestUtils.setField(service, "maxHotFingerprints", 20);
+        ReflectionTestUtils.setField(service, "maxEntries", 200);
+        ReflectionTestUtils.setField(service, "maxRows", 10_000);
+        ReflectionTestUtils.setField(service, "maxStalenessSeconds", 300L);
+        ReflectionTestUtils.setField(service, "idleMinutes", 15L);
+        ReflectionTestUtils.setField(service, "changeCheckSql", "");
+        ReflectionTestUtils.setField(service, "queryTimeoutMs", 15_000L);
+        service.init();
+        ReflectionTestUtils.setField(service, "refreshJdbcTemplate", refreshJdbcTemplate);
+    }
+
+    @Test
+    void onlyActivitySinceTheLastDetectionMakesAFingerprintHot() {
+        totals(new QueryStatisticsService.Totals(30, 2_000_000_000L));
+        service.detectHotFingerprints();
+        // The same totals again mean no calls in between
+        service.detectHotFingerprints();
+
+        service.offer(FINGERPRINT, SQL, ROWS, Instant.now());
+        assertThat(service.lookup(SQL)).isNull();
+
+        totals(new QueryStatisticsService.Totals(60, 4_000_000_000L));
+        service.detectHotFingerprints();
+
+        service.offer(FINGERPRINT, SQL, ROWS, Instant.now());
+        assertThat(service.lookup(SQL)).containsExactlyElementsOf(ROWS);
+    }
+
+    @Test
+    void fewCallsOrLittleDatabaseTimeStayCold() {
+        totals(new QueryStatisticsService.Totals(5, 5_000_000_000L));
+        service.detectHotFingerprints();
+        service.offer(FINGERPRINT, SQL, ROWS, Instant.now());
+        assertThat(service.lookup(SQL)).isNull();
+
+        totals(new QueryStatisticsService.Totals(100, 100_000_000L));
+        service.detectHotFingerprints();
+        service.offer(FINGERPRINT, SQL, ROWS, Instant.now());
+        assertThat(service.lookup(SQL)).isNull();
+    }
+
+    @Test
+    void statisticsResetCountsFromZero() {
+        totals(new QueryStatisticsService.Totals(1000, 50_000_000_000L));
+        service.detectHotFingerprints();
+        totals(new QueryStatisticsService.Totals(25, 1_500_000_000L));
+        service.detectHotFingerprints();
+
+        service.offer(FINGERPRINT, SQL, ROWS, Instant.now());
+        assertThat(service.lookup(SQL)).isNotNull();
+    }
+
+    @Test
+    void resultsOlderThanMaxStalenessAreNotServed() {
+        makeHot();
+        Instant refreshedAt = Instant.now().minusSeconds(301);
+        service.offer(FINGERPRINT, SQL, ROWS, refreshedAt);
+
+        assertThat(service.lookup(SQL)).isNull();
+
+        ReflectionTestUtils.setField(service, "maxStalenessSeconds", 600L);
+        QueryMaterializationService.MaterializedRows rows = service.lookup(SQL);
+        assertThat(rows).isNotNull();
+        assertThat(rows.refreshedAt()).isEqualTo(refreshedAt);
+    }
+
+    @Test
+    void refreshReplacesTheResultOfEntriesInUse() {
+        makeHot();
+        service.offer(FINGERPRINT, SQL, ROWS, Instant.now().minusSeconds(60));
+        List<Map<String, Object>> fresh = List.of(Map.of("region", "North", "total", 11));
+        when(refreshJdbcTemplate.queryForList(SQL)).thenReturn(fresh);
+
+        service.refresh();
+
+        assertThat(service.lookup(SQL)).containsExactlyElementsOf(fresh);
+    }
+
+    @Test
+    void idleEntriesAreDroppedWithoutRunningTheirQuery() throws InterruptedException {
+        makeHot();
+        service.offer(FINGERPRINT, SQL, ROWS, Instant.now());
+        ReflectionTestUtils.setField(service, "idleMinutes", 0L);
+        Thread.sleep(2);
+
+        service.refresh();
+
+        verify(refreshJdbcTemplate, never()).queryForList(SQL);
+        assertThat(service.lookup(SQL)).isNull();
+        assertThat(service.describe()).isEmpty();
+    }
+
+    private void makeHot() {
+        totals(new QueryStatisticsService.Totals(30, 2_000_000_000L));
+        service.detectHotFingerprints();
+    }
+
+    private void totals(QueryStatisticsService.Totals totals) {
+        when(queryStatisticsService.totals()).thenReturn(Map.of(FINGERPRINT, totals));
+    }
+}
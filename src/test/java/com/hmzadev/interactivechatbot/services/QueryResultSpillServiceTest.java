@@ -0,0 +1,206 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmzadev.interactivechatbot.dao.SenderType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.tools.SimpleResultSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryResultSpillServiceTest {
+
+    private static final String OWNER = "alice";
+
+    @TempDir
+    Path spillDir;
+
+    private QueryResultSpillService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new QueryResultSpillService();
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "spillDir", spillDir);
+        ReflectionTestUtils.setField(service, "thresholdRows", 3);
+        ReflectionTestUtils.setField(service, "firstPageRows", 2);
+        ReflectionTestUtils.setField(service, "ttlMinutes", 30L);
+        ReflectionTestUtils.setField(service, "maxFileMb", 1L);
+        ReflectionTestUtils.setField(service, "maxTotalMb", 10L);
+        service.init();
+    }
+
+    @Test
+    void everyValueTypeSurvivesTheRoundTrip() throws Exception {
+        Timestamp timestamp = Timestamp.valueOf(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789));
+        Date date = Date.valueOf("2024-03-01");
+        UUID uuid = UUID.randomUUID();
+        SimpleResultSet resultSet = allTypes();
+        for (int i = 0; i < 6; i++) {
+            resultSet.addRow(i == 5 ? null : (long) i, i, 1.5 * i, 0.5f, "text-" + i, i % 2 == 0,
+                    new BigDecimal("12345678901234567890.0" + i), timestamp, date, new byte[]{1, 2, (byte) i}, uuid);
+        }
+
+        QueryResultSpillService.SpilledRows spilled = spill(resultSet);
+        assertThat(spilled.totalRows()).isEqualTo(6);
+        assertThat(spilled.truncated()).isFalse();
+        assertThat(spilled).hasSize(2);
+
+        service.claim(spilled.handle(), OWNER);
+        QueryResultSpillService.Page page = service.page(spilled.handle(), OWNER, 0, 100).orElseThrow();
+        assertThat(page.rows()).hasSize(6);
+        assertThat(page.totalRows()).isEqualTo(6);
+        for (int i = 0; i < 6; i++) {
+            Map<String, Object> row = page.rows().get(i);
+            assertThat(row.get("ID")).isEqualTo(i == 5 ? null : (long) i);
+            // Integers come back as Long and floats as Double
+            assertThat(row.get("SMALL")).isEqualTo((long) i);
+            assertThat(row.get("RATIO")).isEqualTo(1.5 * i);
+            assertThat(row.get("FLOAT")).isEqualTo(0.5);
+            assertThat(row.get("NAME")).isEqualTo("text-" + i);
+            assertThat(row.get("FLAG")).isEqualTo(i % 2 == 0);
+            assertThat(row.get("AMOUNT")).isEqualTo(new BigDecimal("12345678901234567890.0" + i));
+            assertThat(row.get("CREATED")).isEqualTo(timestamp);
+            assertThat(((Timestamp) row.get("CREATED")).getNanos()).isEqualTo(123_456_789);
+            assertThat(row.get("DAY")).isEqualTo(date);
+            assertThat((byte[]) row.get("BIN")).containsExactly(1, 2, i);
+            // Anything else is stored as its string form
+            assertThat(row.get("OTHER")).isEqualTo(uuid.toString());
+        }
+    }
+
+    @Test
+    void pagesStopAtTheEdgesOfTheResult() throws Exception {
+        QueryResultSpillService.SpilledRows spilled = spill(numbers(10));
+        service.claim(spilled.handle(), OWNER);
+
+        assertThat(ids(service.page(spilled.handle(), OWNER, 0, 4).orElseThrow())).containsExactly(0L, 1L, 2L, 3L);
+        assertThat(ids(service.page(spilled.handle(), OWNER, 8, 4).orElseThrow())).containsExactly(8L, 9L);
+        assertThat(ids(service.page(spilled.handle(), OWNER, 9, 1).orElseThrow())).containsExactly(9L);
+        assertThat(ids(service.page(spilled.handle(), OWNER, 10, 4).orElseThrow())).isEmpty();
+        assertThat(ids(service.page(spilled.handle(), OWNER, -1, 4).orElseThrow())).isEmpty();
+        assertThat(ids(service.page(spilled.handle(), OWNER, 3, 0).orElseThrow())).isEmpty();
+    }
+
+    @Test
+    void onlyTheClaimingUserCanPage() throws Exception {
+        QueryResultSpillService.SpilledRows spilled = spill(numbers(10));
+        assertThat(service.page(spilled.handle(), OWNER, 0, 4)).isEmpty();
+
+        service.claim(spilled.handle(), OWNER);
+        assertThat(service.page(spilled.handle(), "mallory", 0, 4)).isEmpty();
+        assertThat(service.page("no-such-handle", OWNER, 0, 4)).isEmpty();
+    }
+
+    @Test
+    void rowsAndIndexTogetherStayWithinMaxFileSize() throws Exception {
+        SimpleResultSet resultSet = new SimpleResultSet();
+        resultSet.addColumn("ID", Types.BIGINT, 19, 0);
+        resultSet.addColumn("PAYLOAD", Types.VARCHAR, 200_000, 0);
+        String payload = "x".repeat(100_000);
+        for (long i = 0; i < 20; i++) {
+            resultSet.addRow(i, payload);
+        }
+
+        QueryResultSpillService.SpilledRows spilled = spill(resultSet);
+
+        assertThat(spilled.truncated()).isTrue();
+        assertThat(spilled.totalRows()).isBetween(1L, 19L);
+        long bytes = Files.size(spillDir.resolve(spilled.handle() + ".rows"))
+                + Files.size(spillDir.resolve(spilled.handle() + ".idx"));
+        assertThat(bytes).isLessThanOrEqualTo(1024 * 1024);
+
+        service.claim(spilled.handle(), OWNER);
+        QueryResultSpillService.Page last = service.page(spilled.handle(), OWNER, spilled.totalRows() - 1, 10).orElseThrow();
+        assertThat(last.truncated()).isTrue();
+        assertThat(last.rows()).singleElement()
+                .satisfies(row -> assertThat(row.get("PAYLOAD")).isEqualTo(payload));
+    }
+
+    @Test
+    void replaysAreCutAtTheThresholdAndSaySo() throws Exception {
+        QueryResultSpillService.SpillingCollector collector = service.collector(false);
+        SimpleResultSet resultSet = numbers(5);
+        while (resultSet.next()) {
+            collector.processRow(resultSet);
+        }
+
+        List<Map<String, Object>> rows = collector.result();
+
+        assertThat(collector.complete()).isFalse();
+        assertThat(rows).isInstanceOf(QueryResultSpillService.TruncatedRows.class).hasSize(3);
+        assertThat(((QueryResultSpillService.TruncatedRows) rows).totalRows()).isEqualTo(5);
+        try (var files = Files.list(spillDir)) {
+            assertThat(files).isEmpty();
+        }
+
+        // The history writer passes the cut on to the client
+        ObjectMapper objectMapper = new ObjectMapper();
+        StringWriter json = new StringWriter();
+        try (var generator = objectMapper.getFactory().createGenerator(json)) {
+            ChatHistoryWriter writer = new ChatHistoryWriter(generator, content -> "SELECT id FROM numbers", sql -> rows);
+            writer.writeStart();
+            writer.write("bot", SenderType.BOT, LocalDateTime.of(2024, 3, 1, 12, 0));
+            writer.writeEnd();
+        }
+        JsonNode message = objectMapper.readTree(json.toString()).get("messages").get(1);
+        assertThat(message.get("queryResult")).hasSize(3);
+        assertThat(message.get("resultTruncated").asBoolean()).isTrue();
+        assertThat(message.get("resultTotalRows").asLong()).isEqualTo(5);
+    }
+
+    private QueryResultSpillService.SpilledRows spill(SimpleResultSet resultSet) throws Exception {
+        QueryResultSpillService.SpillingCollector collector = service.collector(true);
+        while (resultSet.next()) {
+            collector.processRow(resultSet);
+        }
+        assertThat(collector.complete()).isFalse();
+        return (QueryResultSpillService.SpilledRows) collector.result();
+    }
+
+    private static SimpleResultSet numbers(int count) throws SQLException {
+        SimpleResultSet resultSet = new SimpleResultSet();
+        resultSet.addColumn("ID", Types.BIGINT, 19, 0);
+        for (long i = 0; i < count; i++) {
+            resultSet.addRow(i);
+        }
+        return resultSet;
+    }
+
+    private static SimpleResultSet allTypes() {
+        SimpleResultSet resultSet = new SimpleResultSet();
+        resultSet.addColumn("ID", Types.BIGINT, 19, 0);
+        resultSet.addColumn("SMALL", Types.INTEGER, 10, 0);
+        resultSet.addColumn("RATIO", Types.DOUBLE, 17, 0);
+        resultSet.addColumn("FLOAT", Types.REAL, 7, 0);
+        resultSet.addColumn("NAME", Types.VARCHAR, 100, 0);
+        resultSet.addColumn("FLAG", Types.BOOLEAN, 1, 0);
+        resultSet.addColumn("AMOUNT", Types.DECIMAL, 30, 2);
+        resultSet.addColumn("CREATED", Types.TIMESTAMP, 29, 9);
+        resultSet.addColumn("DAY", Types.DATE, 10, 0);
+        resultSet.addColumn("BIN", Types.VARBINARY, 10, 0);
+        resultSet.addColumn("OTHER", Types.OTHER, 36, 0);
+        return resultSet;
+    }
+
+    private static List<Long> ids(QueryResultSpillService.Page page) {
+        return page.rows().stream().map(row -> (Long) row.get("ID")).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package com.hmzadev.interactivechatbot.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RasaCodecTest {
+
+    @Test
+    void writesEscapedRequest() {
+        assertThat(RasaCodec.writeRequest("user123", "say \"hi\"\n"))
+                .isEqualTo("{\"sender\":\"user123\",\"message\":\"say \\\"hi\\\"\\n\"}");
+    }
+
+    @Test
+    void readsTextButtonsAndCustomPayloads() {
+        List<RasaCodec.RasaMessage> messages = RasaCodec.readResponse("""
+                [{"recipient_id": "u1", "text": "hello", "buttons": [{"title": "Yes", "payload": "/yes", "extra": 1}]},
+                 {"recipient_id": "u1", "custom": {"query": "SELECT 1", "nested": {"a": [1, 2]}}, "ignored": [true]}]
+                """);
+
+        assertThat(messages).hasSize(2);
+        assertThat(messages.get(0)).isEqualTo(new RasaCodec.RasaMessage("u1", "hello",
+                List.of(new RasaCodec.RasaButton("Yes", "/yes")), null));
+        assertThat(messages.get(1).text()).isNull();
+        assertThat(messages.get(1).custom()).contains("\"query\":\"SELECT 1\"");
+    }
+
+    @Test
+    void anythingButAnArrayReadsAsNoMessages() {
+        assertThat(RasaCodec.readResponse(null)).isEmpty();
+        assertThat(RasaCodec.readResponse("")).isEmpty();
+        assertThat(RasaCodec.readResponse("{\"text\": \"hi\"}")).isEmpty();
+        assertThat(RasaCodec.readResponse("not json")).isEmpty();
+        assertThat(RasaCodec.readResponse("[{\"text\": ")).isEmpty();
+    }
+
+    @Test
+    void customPayloadQueryWinsOverTextOfTheSameMessage() {
+        List<RasaCodec.RasaMessage> messages = List.of(
+                new RasaCodec.RasaMessage("u1", "Here is the query: SELECT 2", List.of(), "{\"sql\": \" SELECT 3 \"}"));
+
+        assertThat(RasaCodec.extractSql(messages)).isEqualTo("SELECT 3");
+    }
+
+    @Test
+    void extractsStatementAfterQueryMarkerUpToEndOfLine() {
+        List<RasaCodec.RasaMessage> messages = List.of(
+                new RasaCodec.RasaMessage("u1", "Sure.", List.of(), null),
+                new RasaCodec.RasaMessage("u1", "Running query: SELECT * FROM data \nanything else", List.of(), null));
+
+        assertThat(RasaCodec.extractSql(messages)).isEqualTo("SELECT * FROM data");
+    }
+
+    @Test
+    void fallsBackToFirstTextAndToNull() {
+        assertThat(RasaCodec.extractSql(List.of(
+                new RasaCodec.RasaMessage("u1", " SELECT 4 ", List.of(), "{\"other\": 1}"),
+                new RasaCodec.RasaMessage("u1", "second", List.of(), null))))
+                .isEqualTo("SELECT 4");
+        assertThat(RasaCodec.extractSql(List.of(new RasaCodec.RasaMessage("u1", null, List.of(), "[1]")))).isNull();
+        assertThat(RasaCodec.extractSql(List.of())).isNull();
+    }
+}
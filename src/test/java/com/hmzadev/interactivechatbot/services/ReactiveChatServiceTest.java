@@ -0,0 +1,114 @@
+package com.hmzadev.interactivechatbot.services;
+
+import com.hmzadev.interactivechatbot.dao.Role;
+import com.hmzadev.interactivechatbot.dao.User;
+import com.hmzadev.interactivechatbot.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The R2DBC pool and the JDBC DataSource open the same in-memory H2 database
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactivetest;DB_CLOSE_DELAY=-1",
+        "chat.reactive.enabled=true",
+        "chat.reactive.r2dbc.url=r2dbc:h2:mem:///reactivetest",
+        "chat.reactive.r2dbc.username=sa",
+        "chat.reactive.r2dbc.password="
+})
+@ActiveProfiles("h2")
+class ReactiveChatServiceTest {
+
+    @Autowired
+    private ReactiveChatService reactiveChatService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long sessionId;
+
+    @BeforeEach
+    void createSession() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS sales (id BIGINT PRIMARY KEY, region VARCHAR(20))");
+        jdbcTemplate.execute("MERGE INTO sales KEY (id) VALUES (1, 'North'), (2, 'South')");
+        User user = userRepository.save(User.builder()
+                .username("reactive-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.USER)
+                .build());
+        sessionId = reactiveChatService.createGeneratedChatSession(user.getId()).block();
+    }
+
+    @Test
+    void savesBotMessageBeforeStreamingANonEmptyResult() {
+        List<Map<String, Object>> rows = reactiveChatService.answer(sessionId, "bot says", "SELECT * FROM sales ORDER BY id")
+                .collectList()
+                .block();
+
+        assertThat(rows).hasSize(2);
+        assertThat(botMessages()).containsExactly("bot says");
+    }
+
+    @Test
+    void emptyResultLeavesNoBotMessage() {
+        List<Map<String, Object>> rows = reactiveChatService.answer(sessionId, "bot says", "SELECT * FROM sales WHERE id < 0")
+                .collectList()
+                .block();
+
+        assertThat(rows).isEmpty();
+        assertThat(botMessages()).isEmpty();
+    }
+
+    @Test
+    void failedQueryLeavesNoBotMessage() {
+        assertThatThrownBy(() -> reactiveChatService.answer(sessionId, "bot says", "SELECT * FROM missing_table")
+                .collectList()
+                .block());
+        assertThat(botMessages()).isEmpty();
+    }
+
+    @Test
+    void runsTheSameStatementsAsTheServletPath() {
+        List<Map<String, Object>> rows = reactiveChatService.answer(sessionId, "bot says",
+                        "-- north only\nWITH north AS (SELECT * FROM sales WHERE region = 'North') SELECT * FROM north")
+                .collectList()
+                .block();
+
+        assertThat(rows).hasSize(1);
+        assertThat(botMessages()).containsExactly("bot says");
+    }
+
+    @Test
+    void rejectsStatementsThatAreNotReads() {
+        double rejected = meterRegistry.counter("chat.sql.rejected").count();
+
+        assertThatThrownBy(() -> reactiveChatService.answer(sessionId, "bot says", "DELETE FROM sales")
+                .collectList()
+                .block())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(meterRegistry.counter("chat.sql.rejected").count()).isEqualTo(rejected + 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales", Long.class)).isEqualTo(2);
+        assertThat(botMessages()).isEmpty();
+    }
+
+    private List<String> botMessages() {
+        return jdbcTemplate.queryForList("SELECT content FROM messages WHERE chat_session_id = ? AND sender = 'BOT'",
+                String.class, sessionId);
+    }
+}
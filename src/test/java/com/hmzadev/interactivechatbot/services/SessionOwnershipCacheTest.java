@@ -0,0 +1,145 @@
+package com.hmzadev.interactivechatbot.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionOwnershipCacheTest {
+
+    // 16 entries per segment in a 32-slot table
+    private static final int PER_SEGMENT = 16;
+    private static final int CAPACITY = 32;
+
+    private SessionOwnershipCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SessionOwnershipCache(new SimpleMeterRegistry(), PER_SEGMENT * 16);
+    }
+
+    @Test
+    void missReturnsAbsent() {
+        assertThat(cache.get(7)).isEqualTo(SessionOwnershipCache.ABSENT);
+        cache.put(7, 3);
+        assertThat(cache.get(8)).isEqualTo(SessionOwnershipCache.ABSENT);
+        // 0 marks an empty slot, so it is never cached
+        cache.put(0, 3);
+        assertThat(cache.get(0)).isEqualTo(SessionOwnershipCache.ABSENT);
+    }
+
+    @Test
+    void collidingKeysAreAllFound() {
+        List<Long> keys = collidingKeys(4);
+        for (int i = 0; i < keys.size(); i++) {
+            cache.put(keys.get(i), 100 + i);
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            assertThat(cache.get(keys.get(i))).isEqualTo(100 + i);
+        }
+        cache.put(keys.get(1), 200);
+        assertThat(cache.get(keys.get(1))).isEqualTo(200);
+    }
+
+    @Test
+    void removingTheMiddleOfAProbeChainKeepsTheRestReachable() {
+        List<Long> keys = collidingKeys(3);
+        cache.put(keys.get(0), 1);
+        cache.put(keys.get(1), 2);
+        cache.put(keys.get(2), 3);
+
+        cache.invalidate(keys.get(1));
+
+        assertThat(cache.get(keys.get(0))).isEqualTo(1);
+        assertThat(cache.get(keys.get(1))).isEqualTo(SessionOwnershipCache.ABSENT);
+        assertThat(cache.get(keys.get(2))).isEqualTo(3);
+        // Removing a missing key is a no-op
+        cache.invalidate(keys.get(1));
+        assertThat(cache.get(keys.get(2))).isEqualTo(3);
+    }
+
+    @Test
+    void fullSegmentIsClearedOnTheNextInsert() {
+        List<Long> keys = sameSegmentKeys(PER_SEGMENT + 1);
+        for (int i = 0; i < PER_SEGMENT; i++) {
+            cache.put(keys.get(i), i + 1);
+        }
+        for (int i = 0; i < PER_SEGMENT; i++) {
+            assertThat(cache.get(keys.get(i))).isEqualTo(i + 1);
+        }
+
+        long overflow = keys.get(PER_SEGMENT);
+        cache.put(overflow, 99);
+
+        assertThat(cache.get(overflow)).isEqualTo(99);
+        for (int i = 0; i < PER_SEGMENT; i++) {
+            assertThat(cache.get(keys.get(i))).isEqualTo(SessionOwnershipCache.ABSENT);
+        }
+    }
+
+    @Test
+    void matchesAMapUnderRandomPutsAndRemoves() {
+        // Few keys in one segment, so chains are long, wrap around the table and get shifted often
+        List<Long> keys = sameSegmentKeys(PER_SEGMENT - 1);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int step = 0; step < 10_000; step++) {
+            long key = keys.get(random.nextInt(keys.size()));
+            if (random.nextBoolean()) {
+                cache.put(key, step);
+                expected.put(key, (long) step);
+            } else {
+                cache.invalidate(key);
+                expected.remove(key);
+            }
+            for (long k : keys) {
+                assertThat(cache.get(k)).isEqualTo(expected.getOrDefault(k, SessionOwnershipCache.ABSENT));
+            }
+        }
+    }
+
+    // Keys in the same segment that share a home slot, so each probes past the previous ones
+    private static List<Long> collidingKeys(int count) {
+        List<Long> keys = new ArrayList<>();
+        long first = 1;
+        keys.add(first);
+        for (long key = 2; keys.size() < count; key++) {
+            if (segment(key) == segment(first) && home(key) == home(first)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static List<Long> sameSegmentKeys(int count) {
+        List<Long> keys = new ArrayList<>();
+        keys.add(1L);
+        for (long key = 2; keys.size() < count; key++) {
+            if (segment(key) == segment(1)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    // Same hashing as SessionOwnershipCache
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static int segment(long key) {
+        return (int) (mix(key) >>> 60) & 15;
+    }
+
+    private static int home(long key) {
+        return (int) mix(key) & (CAPACITY - 1);
+    }
+}
@@ -0,0 +1,44 @@
+package com.hmzadev.interactivechatbot.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlFingerprintTest {
+
+    @Test
+    void replacesLiteralsAndNormalizesCaseAndWhitespace() {
+        assertThat(SqlFingerprint.of("select  name\n FROM   t WHERE n = 'it''s' AND v = 3.5"))
+                .isEqualTo("SELECT NAME FROM T WHERE N = ? AND V = ?");
+    }
+
+    @Test
+    void keepsQuotedIdentifiersAndDigitsInsideNames() {
+        assertThat(SqlFingerprint.of("SELECT [Col 1], \"x\" FROM t2 WHERE c1 = 10"))
+                .isEqualTo("SELECT [Col 1], \"x\" FROM T2 WHERE C1 = ?");
+    }
+
+    @Test
+    void inListsOfAnyLengthAndSpacingShareAFingerprint() {
+        String expected = "SELECT * FROM DATA WHERE ID IN (?...)";
+        assertThat(SqlFingerprint.of("SELECT * FROM data WHERE id IN(1,2)")).isEqualTo(expected);
+        assertThat(SqlFingerprint.of("SELECT * FROM data WHERE id IN(1,2,3)")).isEqualTo(expected);
+        assertThat(SqlFingerprint.of("select * from data where id in (1, 2, 3)")).isEqualTo(expected);
+        assertThat(SqlFingerprint.of("SELECT * FROM data WHERE id IN ('a')")).isEqualTo(expected);
+    }
+
+    @Test
+    void collapsesEveryInListIncludingNotIn() {
+        assertThat(SqlFingerprint.of("SELECT * FROM t WHERE region IN ('North','South') AND x NOT IN (4)"))
+                .isEqualTo("SELECT * FROM T WHERE REGION IN (?...) AND X NOT IN (?...)");
+    }
+
+    @Test
+    void leavesWordsEndingInInAndSubqueriesAlone() {
+        assertThat(SqlFingerprint.of("SELECT MIN (amount), MIN(1) FROM data"))
+                .isEqualTo("SELECT MIN (AMOUNT), MIN(?) FROM DATA");
+        assertThat(SqlFingerprint.of("SELECT * FROM JOIN_IN(1,2)")).isEqualTo("SELECT * FROM JOIN_IN(?,?)");
+        assertThat(SqlFingerprint.of("SELECT * FROM t WHERE a IN (SELECT id FROM u)"))
+                .isEqualTo("SELECT * FROM T WHERE A IN (SELECT ID FROM U)");
+    }
+}
@@ -0,0 +1,132 @@
+package com.hmzadev.interactivechatbot.web;
+
+import com.hmzadev.interactivechatbot.configuration.JwtService;
+import com.hmzadev.interactivechatbot.dao.ChatSession;
+import com.hmzadev.interactivechatbot.dao.Message;
+import com.hmzadev.interactivechatbot.dao.Role;
+import com.hmzadev.interactivechatbot.dao.SenderType;
+import com.hmzadev.interactivechatbot.dao.User;
+import com.hmzadev.interactivechatbot.repositories.ChatSessionRepository;
+import com.hmzadev.interactivechatbot.repositories.UserRepository;
+import com.hmzadev.interactivechatbot.services.MessageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// ETag handling of the polled endpoints, through the JWT filter like a real client
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:etagtest;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ChatSessionRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    @Autowired
+    private MessageService messageService;
+
+    private User owner;
+    private ChatSession chatSession;
+
+    @BeforeEach
+    void createSession() {
+        owner = user();
+        ChatSession session = new ChatSession();
+        session.setUser(owner);
+        session.setName("etag-" + UUID.randomUUID());
+        session.setCreatedAt(LocalDateTime.now());
+        chatSession = chatSessionRepository.save(session);
+        saveMessage("first");
+    }
+
+    @Test
+    void historyIsNotModifiedUntilAMessageIsWritten() throws Exception {
+        String path = "/chat-sessions/" + chatSession.getId() + "/messages";
+        String eTag = mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, bearer(owner)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+
+        mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, bearer(owner)).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        saveMessage("second");
+
+        String newTag = mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, bearer(owner))
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newTag).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void aValidTagDoesNotOpenSomeoneElsesSession() throws Exception {
+        String path = "/chat-sessions/" + chatSession.getId() + "/messages";
+        String eTag = mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, bearer(owner)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, bearer(user())).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void sessionListIsNotModifiedUntilASessionIsCreated() throws Exception {
+        String eTag = mockMvc.perform(get("/chat-sessions/categorized").header(HttpHeaders.AUTHORIZATION, bearer(owner)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/chat-sessions/categorized").header(HttpHeaders.AUTHORIZATION, bearer(owner))
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/chat-sessions/create").header(HttpHeaders.AUTHORIZATION, bearer(owner))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sessionName\": \"etag-" + UUID.randomUUID() + "\"}"))
+                .andExpect(status().isOk());
+
+        String newTag = mockMvc.perform(get("/chat-sessions/categorized").header(HttpHeaders.AUTHORIZATION, bearer(owner))
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newTag).isNotEqualTo(eTag);
+    }
+
+    private User user() {
+        return userRepository.save(User.builder()
+                .username("etag-" + UUID.randomUUID())
+                .password("secret")
+                .role(Role.USER)
+                .build());
+    }
+
+    private void saveMessage(String content) {
+        messageService.saveMessage(new Message(chatSession, content, LocalDateTime.now(), SenderType.USER));
+    }
+
+    private String bearer(User user) {
+        return "Bearer " + jwtService.generateToken(user);
+    }
+}
@@ -0,0 +1,18 @@
+-- Table the stubbed bot answers query against, seeded with a few thousand rows
+DROP TABLE IF EXISTS data;
+CREATE TABLE data (
+    id BIGINT PRIMARY KEY,
+    region VARCHAR(20) NOT NULL,
+    product VARCHAR(50) NOT NULL,
+    amount DECIMAL(12, 2) NOT NULL,
+    quantity INT NOT NULL,
+    sale_date TIMESTAMP NOT NULL
+);
+INSERT INTO data (id, region, product, amount, quantity, sale_date)
+SELECT x,
+       CASE MOD(x, 4) WHEN 0 THEN 'North' WHEN 1 THEN 'South' WHEN 2 THEN 'East' ELSE 'West' END,
+       CONCAT('Product ', MOD(x, 50)),
+       MOD(x * 37, 100000) / 100.0,
+       MOD(x, 17),
+       DATEADD('HOUR', x, TIMESTAMP '2024-01-01 00:00:00')
+FROM SYSTEM_RANGE(1, 5000);